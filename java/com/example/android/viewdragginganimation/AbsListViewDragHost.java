@@ -0,0 +1,123 @@
+package com.example.android.viewdragginganimation;
+
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.Adapter;
+import android.widget.BaseAdapter;
+
+/**
+ * DragHost for a ListView or GridView. AbsListView has no fine-grained change
+ * notifications, so every change notifies a full data set change, once per batch.
+ */
+public class AbsListViewDragHost implements DragHost {
+
+    private final AbsListView mListView;
+    private int mBatchDepth = 0;
+    private boolean mBatchChanged = false;
+
+    public AbsListViewDragHost(AbsListView listView) {
+        this.mListView = listView;
+    }
+
+    @Override
+    public ViewGroup getView() {
+        return mListView;
+    }
+
+    @Override
+    public void dispatchContainerTouchEvent(MotionEvent event) {
+        mListView.onTouchEvent(event);
+    }
+
+    @Override
+    public int getChildCount() {
+        return mListView.getChildCount();
+    }
+
+    @Override
+    public View getChildAt(int index) {
+        return mListView.getChildAt(index);
+    }
+
+    @Override
+    public int getPositionOfChild(int index) {
+        return mListView.getFirstVisiblePosition() + index;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        Adapter adapter = mListView.getAdapter();
+        if (adapter == null) return AbsListView.INVALID_ROW_ID;
+        return adapter.getItemId(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mListView.getCount();
+    }
+
+    @Override
+    public int getHeight() {
+        return mListView.getHeight();
+    }
+
+    @Override
+    public boolean canScrollVertically(int direction) {
+        int childCount = mListView.getChildCount();
+        if (childCount == 0) return false;
+        if (direction < 0) {
+            return (mListView.getFirstVisiblePosition() > 0)
+                    || (mListView.getChildAt(0).getTop() < mListView.getPaddingTop());
+        }
+        return (mListView.getFirstVisiblePosition() + childCount < mListView.getCount())
+                || (mListView.getChildAt(childCount - 1).getBottom() > mListView.getHeight() - mListView.getPaddingBottom());
+    }
+
+    @Override
+    public void scrollBy(int dy) {
+        mListView.smoothScrollBy(dy, 0);
+    }
+
+    @Override
+    public void notifyItemMoved(int fromPosition, int toPosition) {
+        notifyChanged();
+    }
+
+    @Override
+    public void notifyItemRemoved(int position) {
+        notifyChanged();
+    }
+
+    @Override
+    public void notifyItemInserted(int position) {
+        notifyChanged();
+    }
+
+    @Override
+    public void beginChanges() {
+        mBatchDepth++;
+    }
+
+    @Override
+    public void endChanges() {
+        if (mBatchDepth == 0) return;
+        mBatchDepth--;
+        if ((mBatchDepth == 0) && mBatchChanged) {
+            mBatchChanged = false;
+            notifyChanged();
+        }
+    }
+
+    private void notifyChanged() {
+        if (mBatchDepth > 0) {
+            mBatchChanged = true;
+            return;
+        }
+        Adapter adapter = mListView.getAdapter();
+        if (adapter instanceof BaseAdapter) {
+            ((BaseAdapter) adapter).notifyDataSetChanged();
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.example.android.viewdragginganimation;
 import android.graphics.Rect;
 import android.view.View;
 
-import java.util.ArrayList;
+import java.util.List;
 
 public abstract class AbstractHoverOperation implements HoverOperation {
 
@@ -22,7 +22,17 @@ public abstract class AbstractHoverOperation implements HoverOperation {
 
     }
 
-    public void swapElements(ArrayList arrayList, int indexOne, int indexTwo) {
+    @Override
+    public void hoverZoneChanged(DynamicRecyclingView dynamicListView, long stableID, int originalPosition, DropZone oldZone, DropZone newZone) {
+
+    }
+
+    @Override
+    public void zoneDropped(DynamicRecyclingView dynamicListView, long stableID, int originalPosition, DropZone zone) {
+
+    }
+
+    public void swapElements(List arrayList, int indexOne, int indexTwo) {
         try {
             Object temp1 = arrayList.get(indexOne);
             Object temp2 = arrayList.get(indexTwo);
@@ -33,14 +43,38 @@ public abstract class AbstractHoverOperation implements HoverOperation {
         }
     }
 
-    public void deleteElement(ArrayList arrayList, int index) {
+    public void deleteElement(List arrayList, int index) {
         try {
             arrayList.remove(index);
         } catch (IndexOutOfBoundsException e) {
         }
     }
 
-    public void moveElement(ArrayList arrayList, int fromIndex, int toIndex) {
+    /**
+     * Rotates the elements at the first count indices by one: the element at indices[0]
+     * goes to indices[count - 1] and every other one moves back to the previous index.
+     * The elements at other indices stay in place. For two indices this is a swap.
+     */
+    public void rotateElements(List arrayList, int[] indices, int count) {
+        if (count < 2) return;
+        try {
+            Object temp1 = arrayList.get(indices[0]);
+            for (int i = 1; i < count; i++) {
+                arrayList.set(indices[i - 1], arrayList.get(indices[i]));
+            }
+            arrayList.set(indices[count - 1], temp1);
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    public void moveElement(List arrayList, int fromIndex, int toIndex) {
+        if (arrayList instanceof FilteredList) {
+            try {
+                ((FilteredList) arrayList).move(fromIndex, toIndex);
+            } catch (IndexOutOfBoundsException e) {
+            }
+            return;
+        }
         try {
             Object temp1 = arrayList.get(fromIndex);
             if (fromIndex == toIndex) return;
@@ -51,4 +85,28 @@ public abstract class AbstractHoverOperation implements HoverOperation {
         } catch (IndexOutOfBoundsException e) {
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Reports a swap of the items at indexOne and indexTwo as the moves that produce it.
+     */
+    public void notifySwapped(DragHost host, int indexOne, int indexTwo) {
+        if (indexOne == indexTwo) return;
+        int low = Math.min(indexOne, indexTwo);
+        int high = Math.max(indexOne, indexTwo);
+        host.notifyItemMoved(low, high);
+        //the item from high shifted down to high - 1, already next to low if adjacent.
+        if (high - 1 != low) {
+            host.notifyItemMoved(high - 1, low);
+        }
+    }
+
+    /**
+     * Reports rotateElements() over the same indices, as the swaps along the path it
+     * is made of.
+     */
+    public void notifyRotated(DragHost host, int[] indices, int count) {
+        for (int i = 1; i < count; i++) {
+            notifySwapped(host, indices[i - 1], indices[i]);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.android.viewdragginganimation;
+
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ListAdapter;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Adapter wrapper that can inflate and bind views ahead of time.
+ * <p/>
+ * DynamicRecyclingView calls prepare() for the rows about to be scrolled in while
+ * it auto-scrolls a drag. When the list later asks for that position, the prepared
+ * view is handed over instead of binding inside the frame that scrolls it in.
+ * The scrap view it would have used goes back to the recycler.
+ * <p/>
+ * Prepared views are matched by stable ID, so the wrapped adapter must have stable IDs.
+ * <p/>
+ * It also holds unbound views inflated ahead of time, possibly on another thread.
+ * These are passed to the wrapped adapter as the convertView when the list has no
+ * scrap view to give, so the adapter only binds them.
+ */
+public class BindAheadAdapter extends ForwardingAdapter {
+
+    private static final int MAX_PREPARED = 16;
+
+    private final SparseArray<View> mPreparedViews = new SparseArray<>();
+    private final SparseArray<Long> mPreparedIds = new SparseArray<>();
+    private final ConcurrentLinkedQueue<View> mInflatedViews = new ConcurrentLinkedQueue<>();
+
+    public BindAheadAdapter(ListAdapter adapter) {
+        super(adapter);
+    }
+
+    @Override
+    protected void onWrappedInvalidated() {
+        clearPrepared();
+    }
+
+    /**
+     * Binds the view for position now, so a later getView for it is free.
+     * Returns false if nothing was prepared.
+     */
+    public boolean prepare(int position, ViewGroup parent) {
+        if (!mAdapter.hasStableIds()) return false;
+        if ((position < 0) || (position >= mAdapter.getCount())) return false;
+        if (mPreparedViews.get(position) != null) return false;
+        if (mPreparedViews.size() >= MAX_PREPARED) return false;
+
+        View view = mAdapter.getView(position, null, parent);
+        mPreparedViews.put(position, view);
+        mPreparedIds.put(position, mAdapter.getItemId(position));
+        return true;
+    }
+
+    public boolean isPrepared(int position) {
+        return mPreparedViews.get(position) != null;
+    }
+
+    /**
+     * Drops prepared views that are outside the given range of positions.
+     */
+    public void trimPrepared(int first, int last) {
+        for (int i = mPreparedViews.size() - 1; i >= 0; i--) {
+            int position = mPreparedViews.keyAt(i);
+            if ((position < first) || (position > last)) {
+                mPreparedViews.removeAt(i);
+                mPreparedIds.remove(position);
+            }
+        }
+    }
+
+    /**
+     * Adds an unbound view to be used as a convertView. Safe to call from any thread.
+     */
+    public void offerInflated(View view) {
+        mInflatedViews.offer(view);
+    }
+
+    public int getInflatedCount() {
+        return mInflatedViews.size();
+    }
+
+    public void clearPrepared() {
+        mPreparedViews.clear();
+        mPreparedIds.clear();
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        View prepared = mPreparedViews.get(position);
+        if (prepared != null) {
+            Long id = mPreparedIds.get(position);
+            mPreparedViews.remove(position);
+            mPreparedIds.remove(position);
+            if ((id != null) && (id == mAdapter.getItemId(position)) && (prepared.getParent() == null)) {
+                return prepared;
+            }
+        }
+        if ((convertView == null) && (mAdapter.getViewTypeCount() == 1)) {
+            convertView = mInflatedViews.poll();
+        }
+        return mAdapter.getView(position, convertView, parent);
+    }
+}
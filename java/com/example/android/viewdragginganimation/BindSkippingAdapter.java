@@ -0,0 +1,85 @@
+package com.example.android.viewdragginganimation;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ListAdapter;
+
+import java.util.WeakHashMap;
+
+/**
+ * Adapter wrapper that skips rebinding a view that already shows the requested content.
+ * <p/>
+ * After every swap the list calls getView for each visible cell, usually with the very
+ * view that already shows that item. This wrapper remembers the stable ID and content
+ * version each view was last bound to, and returns such a view untouched.
+ * <p/>
+ * The content version comes from the wrapped adapter if it implements ContentVersions,
+ * otherwise from the hashCode() of its item. Without stable IDs every call is passed on.
+ */
+public class BindSkippingAdapter extends ForwardingAdapter {
+
+    public interface ContentVersions {
+        /**
+         * Returns a value that changes whenever the view for position would look different.
+         */
+        long getContentVersion(int position);
+    }
+
+    private static class BoundState {
+        long id;
+        long version;
+    }
+
+    private final WeakHashMap<View, BoundState> mBound = new WeakHashMap<>();
+    private int mSkipped = 0;
+
+    public BindSkippingAdapter(ListAdapter adapter) {
+        super(adapter);
+    }
+
+    @Override
+    protected void onWrappedInvalidated() {
+        mBound.clear();
+    }
+
+    /**
+     * Returns how many binds were skipped so far.
+     */
+    public int getSkippedCount() {
+        return mSkipped;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        if (!mAdapter.hasStableIds()) {
+            return mAdapter.getView(position, convertView, parent);
+        }
+        long id = mAdapter.getItemId(position);
+        long version = getContentVersion(position);
+        if (convertView != null) {
+            BoundState state = mBound.get(convertView);
+            if ((state != null) && (state.id == id) && (state.version == version)) {
+                mSkipped++;
+                return convertView;
+            }
+        }
+
+        View view = mAdapter.getView(position, convertView, parent);
+        BoundState state = mBound.get(view);
+        if (state == null) {
+            state = new BoundState();
+            mBound.put(view, state);
+        }
+        state.id = id;
+        state.version = version;
+        return view;
+    }
+
+    private long getContentVersion(int position) {
+        if (mAdapter instanceof ContentVersions) {
+            return ((ContentVersions) mAdapter).getContentVersion(position);
+        }
+        Object item = mAdapter.getItem(position);
+        return (item == null) ? 0 : item.hashCode();
+    }
+}
@@ -0,0 +1,909 @@
+package com.example.android.viewdragginganimation;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.SystemClock;
+import android.view.HapticFeedbackConstants;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+/**
+ * The drag engine, independent of the container it runs over: the touch state machine
+ * from drag start detection through lift, hover and drop, the hover cell snapshot and
+ * bounds, hit testing, stable ID lookup, edge auto-scroll and the dispatch of hover
+ * events to a Callback, all expressed against a DragHost.
+ * <p/>
+ * A drag goes from idle to lifted, where the live cell is only scaled up, to mobile once
+ * the pointer moves past the touch slop, when the snapshot is taken and the cell hidden.
+ * <p/>
+ * DynamicRecyclingView feeds its touch events, layouts and scrolls in here and maps the
+ * Callback onto its HoverOperation. A plain ListView or GridView gets the same drags
+ * from attach(), which listens to its touches and, from API 18, draws the hover cell in
+ * its overlay. A RecyclerView host would implement DragHost with its fine-grained item
+ * notifications and forward touches from an OnItemTouchListener.
+ */
+public class DragController implements View.OnTouchListener {
+
+    public static final int INVALID_POSITION = -1;
+    public static final long INVALID_ID = -1;
+
+    public static final int DRAG_START_NONE = 0;
+    public static final int DRAG_START_LONG_PRESS = 1;
+    public static final int DRAG_START_HOLD_AND_MOVE = 2;
+
+    public static final int STATE_IDLE = 0;
+    public static final int STATE_LIFTED = 1;
+    public static final int STATE_MOBILE = 2;
+
+    private static final int LINE_THICKNESS = 15;
+    private static final int SMOOTH_SCROLL_AMOUNT_AT_EDGE = 15;
+    private static final float LIFTED_SCALE = 1.05f;
+    private static final int INVALID_POINTER_ID = -1;
+
+    /**
+     * What the owner of a drag hears about it. Positions are adapter positions.
+     */
+    public interface Callback {
+        /**
+         * Returns false to refuse a drag of the item at position.
+         */
+        boolean canDrag(int position);
+
+        /**
+         * Returns the scale to capture the hover cell at, 1 for full resolution.
+         */
+        float getHoverCellScale();
+
+        /**
+         * Called once the hover cell is captured and follows the pointer.
+         */
+        void onDragStarted(long stableID, int position);
+
+        /**
+         * Maps the position under the hover cell to the one the item may go to.
+         */
+        int constrainPosition(int originalPosition, int position);
+
+        /**
+         * Called on every move of the hover cell. Returns true if the hover is handled
+         * elsewhere, which skips onHoverPosition() and the auto-scroll for this move.
+         */
+        boolean onHoverMoved(long stableID, Bitmap hoverCell, Rect hoverCellBounds);
+
+        void onHoverPosition(long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds);
+
+        void onHoverEnded(long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds);
+
+        void onHoverCancelled(long stableID);
+
+        void onViewSwitched(long stableID, int position, View oldView, View newView);
+
+        /**
+         * Called when the host auto-scrolled at an edge, -1 up or 1 down.
+         */
+        void onAutoScroll(int direction);
+
+        /**
+         * Called after every lift or drag, however it ended, right before the state goes
+         * back to idle. The getters still describe the drag.
+         */
+        void onDragEnded(long stableID);
+    }
+
+    /**
+     * Callback with nothing to add: every item can be dragged to any position.
+     */
+    public static class SimpleCallback implements Callback {
+        @Override
+        public boolean canDrag(int position) {
+            return true;
+        }
+
+        @Override
+        public float getHoverCellScale() {
+            return 1f;
+        }
+
+        @Override
+        public void onDragStarted(long stableID, int position) {
+        }
+
+        @Override
+        public int constrainPosition(int originalPosition, int position) {
+            return position;
+        }
+
+        @Override
+        public boolean onHoverMoved(long stableID, Bitmap hoverCell, Rect hoverCellBounds) {
+            return false;
+        }
+
+        @Override
+        public void onHoverPosition(long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds) {
+        }
+
+        @Override
+        public void onHoverEnded(long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds) {
+        }
+
+        @Override
+        public void onHoverCancelled(long stableID) {
+        }
+
+        @Override
+        public void onViewSwitched(long stableID, int position, View oldView, View newView) {
+        }
+
+        @Override
+        public void onAutoScroll(int direction) {
+        }
+
+        @Override
+        public void onDragEnded(long stableID) {
+        }
+    }
+
+    private final DragHost mHost;
+    private Callback mCallback = new SimpleCallback();
+    private final Rect mFrame = new Rect();
+    private final Paint mBorderPaint = new Paint();
+
+    private int mState = STATE_IDLE;
+    private long mItemId = INVALID_ID;
+    private View mLiftedView;
+    private int mMobileItemPosition = INVALID_POSITION;
+    private int mDragStartPosition = INVALID_POSITION;
+    private View mMobileView;
+
+    private boolean mResumePending = false;
+    private int mResumeStartPosition = INVALID_POSITION;
+    private float mResumeHoverX;
+    private float mResumeHoverY;
+
+    private Bitmap mHoverCell;
+    private Rect mHoverCellCurrentBounds;
+    private Rect mHoverCellOriginalBounds;
+    private final Paint mHoverCellPaint = new Paint();
+    private final Rect mHoverSource = new Rect();
+    private boolean mHoverHidden = false;
+
+    private float mLastEventX = Float.NaN;
+    private float mLastEventY = Float.NaN;
+    private int mActivePointerId = INVALID_POINTER_ID;
+    private boolean mIsMobileScrolling = false;
+    private final int mSmoothScrollAmountAtEdge;
+
+    private int mDragStartMode = DRAG_START_NONE;
+    private int mDragHandleId = 0;
+    private final int mTouchSlop;
+    private int mHoldTimeout;
+    private long mPendingDragId = INVALID_ID;
+    private boolean mPendingDragOnHandle = false;
+    private float mDownX;
+    private float mDownY;
+    private long mDownTime;
+    private int mDownPointerId = INVALID_POINTER_ID;
+    private final Rect mHandleFrame = new Rect();
+
+    public DragController(DragHost host) {
+        this.mHost = host;
+        mBorderPaint.setStyle(Paint.Style.STROKE);
+        mBorderPaint.setStrokeWidth(LINE_THICKNESS);
+        mBorderPaint.setColor(Color.BLACK);
+        mHoverCellPaint.setFilterBitmap(true);
+
+        View view = host.getView();
+        mSmoothScrollAmountAtEdge = (int) (SMOOTH_SCROLL_AMOUNT_AT_EDGE * view.getResources().getDisplayMetrics().density);
+        mTouchSlop = ViewConfiguration.get(view.getContext()).getScaledTouchSlop();
+        mHoldTimeout = ViewConfiguration.getLongPressTimeout() / 2;
+    }
+
+    public DragHost getHost() {
+        return mHost;
+    }
+
+    public void setCallback(Callback callback) {
+        this.mCallback = (callback != null) ? callback : new SimpleCallback();
+    }
+
+    /**
+     * Drives drags over a container that does not forward its events itself, such as a
+     * plain ListView or GridView: listens to its touches, follows its layout while a drag
+     * is in progress and, from API 18, draws the hover cell in its overlay. Cells that
+     * consume touches themselves keep them, a drag can only start where the container
+     * gets the touch.
+     */
+    public void attach() {
+        ViewGroup view = mHost.getView();
+        view.setOnTouchListener(this);
+        view.getViewTreeObserver().addOnPreDrawListener(mLayoutFollower);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            addOverlay(view);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private void addOverlay(ViewGroup view) {
+        view.getOverlay().add(mHoverDrawable);
+    }
+
+    @Override
+    public boolean onTouch(View v, MotionEvent event) {
+        return onTouchEvent(event);
+    }
+
+    /**
+     * Keeps an attached container's mobile view in step with its layout and scrolling.
+     */
+    private final ViewTreeObserver.OnPreDrawListener mLayoutFollower = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            if (mState != STATE_IDLE) {
+                onLayout();
+            }
+            return true;
+        }
+    };
+
+    private final Drawable mHoverDrawable = new Drawable() {
+        @Override
+        public void draw(Canvas canvas) {
+            drawHover(canvas);
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+        }
+
+        @Override
+        public void setColorFilter(ColorFilter colorFilter) {
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    };
+
+    /**
+     * Sets how a touch on a cell starts a drag, DRAG_START_LONG_PRESS and/or
+     * DRAG_START_HOLD_AND_MOVE. DRAG_START_NONE leaves it to liftItem().
+     */
+    public void setDragStartMode(int dragStartMode) {
+        this.mDragStartMode = dragStartMode;
+    }
+
+    public int getDragStartMode() {
+        return mDragStartMode;
+    }
+
+    /**
+     * Sets the id of a view within each cell that acts as a drag handle. Moving past the
+     * touch slop from the handle starts a drag at once, and the other modes only apply
+     * to touches on the handle. 0 means the whole cell.
+     */
+    public void setDragHandleId(int dragHandleId) {
+        this.mDragHandleId = dragHandleId;
+    }
+
+    public int getDragHandleId() {
+        return mDragHandleId;
+    }
+
+    /**
+     * Sets how long a touch must stay within the touch slop before moving starts a drag
+     * in DRAG_START_HOLD_AND_MOVE mode. Defaults to half the long press timeout, shorter
+     * values let slow scrolls start drags.
+     */
+    public void setHoldTimeout(int holdTimeoutMillis) {
+        this.mHoldTimeout = holdTimeoutMillis;
+    }
+
+    public int getHoldTimeout() {
+        return mHoldTimeout;
+    }
+
+    public int getState() {
+        return mState;
+    }
+
+    public boolean isDragging() {
+        return mState != STATE_IDLE;
+    }
+
+    public boolean isHoverMobile() {
+        return mState == STATE_MOBILE;
+    }
+
+    /**
+     * Returns the stable ID of the lifted or mobile item, or INVALID_ID.
+     */
+    public long getItemId() {
+        return mItemId;
+    }
+
+    /**
+     * Returns the position of the mobile item as of the last layout.
+     */
+    public int getMobileItemPosition() {
+        return mMobileItemPosition;
+    }
+
+    /**
+     * Returns the position the current drag started from, before any moves during it.
+     */
+    public int getDragStartPosition() {
+        return mResumePending ? mResumeStartPosition : mDragStartPosition;
+    }
+
+    public View getLiftedView() {
+        return mLiftedView;
+    }
+
+    /**
+     * Returns the distance scrolled per move while the hover cell is at an edge.
+     */
+    public int getAutoScrollAmount() {
+        return mSmoothScrollAmountAtEdge;
+    }
+
+    public Bitmap getHoverCell() {
+        return mHoverCell;
+    }
+
+    /**
+     * Returns the bounds the hover cell is drawn at, or null if there is none.
+     */
+    public Rect getHoverCellBounds() {
+        return mHoverCellCurrentBounds;
+    }
+
+    public void setHoverCellAlpha(int alpha) {
+        mHoverCellPaint.setAlpha(alpha);
+    }
+
+    /**
+     * Hides the hover cell while something else draws it, without ending the drag.
+     */
+    public void setHoverHidden(boolean hidden) {
+        if (mHoverHidden != hidden) {
+            mHoverHidden = hidden;
+            mHost.getView().invalidate();
+        }
+    }
+
+    /**
+     * Retrieves the visible child showing itemID.
+     */
+    public View findViewForId(long itemID) {
+        for (int i = 0, s = mHost.getChildCount(); i < s; i++) {
+            if (mHost.getItemId(mHost.getPositionOfChild(i)) == itemID) {
+                return mHost.getChildAt(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the position of the child under the given coords, ignoring visibility
+     * and potential matrix changes in the children.
+     */
+    public int findPositionByPoint(int x, int y) {
+        for (int i = mHost.getChildCount() - 1; i >= 0; i--) {
+            View child = mHost.getChildAt(i);
+            mFrame.set(child.getLeft(), child.getTop(), child.getRight(), child.getBottom());
+            if (mFrame.contains(x, y)) {
+                return mHost.getPositionOfChild(i);
+            }
+        }
+        return INVALID_POSITION;
+    }
+
+    private int getPositionOfView(View view) {
+        int index = mHost.getView().indexOfChild(view);
+        return (index < 0) ? INVALID_POSITION : mHost.getPositionOfChild(index);
+    }
+
+    /**
+     * Scrolls the host by amount if the hover cell is at an edge it can scroll past.
+     * Returns the direction scrolled, -1, 1 or 0 if none.
+     */
+    public int autoScroll(Rect hoverBounds, int amount) {
+        if (hoverBounds == null) return 0;
+        if (hoverBounds.top <= 0 && mHost.canScrollVertically(-1)) {
+            mHost.scrollBy(-amount);
+            return -1;
+        }
+        if (hoverBounds.bottom >= mHost.getHeight() && mHost.canScrollVertically(1)) {
+            mHost.scrollBy(amount);
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns a screenshot of the view with a black border drawn over it.
+     */
+    public Bitmap captureHoverCell(View v) {
+        return captureHoverCell(v, 1f);
+    }
+
+    /**
+     * Returns a screenshot of the view with a black border drawn over it, scaled down
+     * by scale. The caller draws it scaled back up to the view's size.
+     */
+    public Bitmap captureHoverCell(View v, float scale) {
+        int width = Math.max((int) (v.getWidth() * scale), 1);
+        int height = Math.max((int) (v.getHeight() * scale), 1);
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.scale(scale, scale);
+        v.draw(canvas);
+        mFrame.set(0, 0, v.getWidth(), v.getHeight());
+        canvas.drawRect(mFrame, mBorderPaint);
+        return bitmap;
+    }
+
+    /**
+     * Draws the hover cell at its bounds. Containers that draw it themselves call this
+     * after drawing their children.
+     */
+    public void drawHover(Canvas canvas) {
+        if ((mHoverCell == null) || mHoverHidden || (mHoverCellCurrentBounds == null)) return;
+        if (mHoverCell.getWidth() == mHoverCellCurrentBounds.width()) {
+            canvas.drawBitmap(mHoverCell, mHoverCellCurrentBounds.left, mHoverCellCurrentBounds.top, mHoverCellPaint);
+        } else {
+            //low resolution hover cell, see Callback.getHoverCellScale().
+            mHoverSource.set(0, 0, mHoverCell.getWidth(), mHoverCell.getHeight());
+            canvas.drawBitmap(mHoverCell, mHoverSource, mHoverCellCurrentBounds, mHoverCellPaint);
+        }
+    }
+
+    /**
+     * Lifts the cell for the given visible ID. The cell is only scaled up here; the
+     * snapshot is captured once the pointer moves past the touch slop, and a tap or
+     * cancel before that just drops the lift.
+     */
+    public boolean liftItem(long itemID) {
+        if (mState != STATE_IDLE) return false;
+        View view = findViewForId(itemID);
+        if (view == null) return false;
+        if (!mCallback.canDrag(getPositionOfView(view))) return false;
+
+        mItemId = itemID;
+        setLiftedView(view);
+        mState = STATE_LIFTED;
+        return true;
+    }
+
+    /**
+     * Turns the lifted cell into the hover cell: hides it and captures its snapshot.
+     * Deferred until the pointer moves past the touch slop, so a tap costs no capture.
+     */
+    public boolean captureLiftedItem() {
+        if (mState != STATE_LIFTED) return false;
+        setLiftedView(null);
+        View view = findViewForId(mItemId);
+        if (view == null) return false;
+
+        mMobileView = view;
+        mMobileItemPosition = getPositionOfView(view);
+        mDragStartPosition = mMobileItemPosition;
+        mHoverCell = captureHoverCell(mMobileView, mCallback.getHoverCellScale());
+        mMobileView.setVisibility(View.INVISIBLE);
+        updateOriginalBounds();
+        mHoverCellCurrentBounds = new Rect(mHoverCellOriginalBounds);
+        if (mResumePending) {
+            mResumePending = false;
+            mDragStartPosition = mResumeStartPosition;
+            View container = mHost.getView();
+            mHoverCellCurrentBounds.offsetTo((int) (mResumeHoverX * container.getWidth()),
+                    (int) (mResumeHoverY * container.getHeight()));
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            mHoverDrawable.setBounds(0, 0, mHost.getView().getWidth(), mHost.getView().getHeight());
+        }
+        mState = STATE_MOBILE;
+        mHost.getView().invalidate();
+        mCallback.onDragStarted(mItemId, mMobileItemPosition);
+        return true;
+    }
+
+    /**
+     * Resumes a drag saved across a configuration change, dragStartPosition being the
+     * position it had started from and hoverX, hoverY the hover cell's top left corner
+     * as a fraction of the container size. Only lifts itemID: the snapshot is captured
+     * on the first move, without the touch slop, and the hover cell placed there.
+     */
+    public boolean resumeDrag(long itemID, int dragStartPosition, float hoverX, float hoverY) {
+        if (!liftItem(itemID)) return false;
+        mResumePending = true;
+        mResumeStartPosition = dragStartPosition;
+        mResumeHoverX = hoverX;
+        mResumeHoverY = hoverY;
+        return true;
+    }
+
+    /**
+     * Returns true while a drag restored by resumeDrag() waits for its first move.
+     */
+    public boolean isResumePending() {
+        return mResumePending;
+    }
+
+    public float getResumeHoverX() {
+        return mResumeHoverX;
+    }
+
+    public float getResumeHoverY() {
+        return mResumeHoverY;
+    }
+
+    /**
+     * Moves the hover cell's top left corner to left, top.
+     */
+    public void moveHoverCellTo(int left, int top) {
+        if (mHoverCellCurrentBounds == null) return;
+        mHoverCellCurrentBounds.offsetTo(left, top);
+        mHost.getView().invalidate();
+    }
+
+    private void setLiftedView(View view) {
+        if (mLiftedView != null) {
+            mLiftedView.setScaleX(1f);
+            mLiftedView.setScaleY(1f);
+        }
+        mLiftedView = view;
+        if (mLiftedView != null) {
+            mLiftedView.setScaleX(LIFTED_SCALE);
+            mLiftedView.setScaleY(LIFTED_SCALE);
+        }
+    }
+
+    /**
+     * Returns true if the container should intercept event from its children.
+     */
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        if (mState == STATE_MOBILE) return true;
+        if (mState == STATE_LIFTED) {
+            //An intercepted event never reaches onTouchEvent(), end the lift here. Intercepting
+            //still cancels the child, so releasing a long press does not also click it.
+            int action = event.getAction() & MotionEvent.ACTION_MASK;
+            if ((action == MotionEvent.ACTION_UP) || (action == MotionEvent.ACTION_CANCEL)) {
+                resetValues();
+            }
+            return true;
+        }
+        return detectDragStart(event);
+    }
+
+    /**
+     * Handles event while a drag is in progress or starting. Returns false if it is not
+     * part of a drag, and the container should handle it as usual.
+     */
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mState == STATE_IDLE) {
+            if (!detectDragStart(event)) return false;
+            //The container may have been tracking this gesture itself, stop it.
+            MotionEvent cancel = MotionEvent.obtain(event);
+            cancel.setAction(MotionEvent.ACTION_CANCEL);
+            mHost.dispatchContainerTouchEvent(cancel);
+            cancel.recycle();
+        }
+
+        switch (event.getAction() & MotionEvent.ACTION_MASK) {
+            case MotionEvent.ACTION_MOVE:
+                int pointerIndex;
+                if ((Float.isNaN(mLastEventX)) || Float.isNaN(mLastEventY)) {
+                    mActivePointerId = event.getPointerId(0);
+                    pointerIndex = event.findPointerIndex(mActivePointerId);
+                    mLastEventX = event.getX(pointerIndex);
+                    mLastEventY = event.getY(pointerIndex);
+                }
+                mHost.getView().invalidate();
+
+                if (mActivePointerId == INVALID_POINTER_ID) {
+                    break;
+                }
+
+                pointerIndex = event.findPointerIndex(mActivePointerId);
+                float thisEventX = event.getX(pointerIndex);
+                float thisEventY = event.getY(pointerIndex);
+
+                float deltaX = thisEventX - mLastEventX;
+                float deltaY = thisEventY - mLastEventY;
+
+                if (mState == STATE_LIFTED) {
+                    //A resumed drag was past the slop already.
+                    if (!mResumePending && ((deltaX * deltaX) + (deltaY * deltaY) <= mTouchSlop * mTouchSlop)) {
+                        break;
+                    }
+                    if (!captureLiftedItem()) {
+                        resetValues();
+                        break;
+                    }
+                }
+
+                if (mState == STATE_MOBILE) {
+                    mHoverCellCurrentBounds.offsetTo(
+                            (int) (mHoverCellCurrentBounds.left + deltaX),
+                            (int) (mHoverCellCurrentBounds.top + deltaY));
+
+                    mIsMobileScrolling = false;
+                    if (!mCallback.onHoverMoved(mItemId, mHoverCell, mHoverCellCurrentBounds)) {
+                        dispatchHoverPosition();
+                        handleMobileCellScroll();
+                    }
+                    mLastEventX = (int) thisEventX;
+                    mLastEventY = (int) thisEventY;
+                }
+
+                break;
+
+            case MotionEvent.ACTION_UP:
+                dropHoverCell();
+                resetValues();
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                if (mState == STATE_MOBILE) {
+                    mCallback.onHoverCancelled(mItemId);
+                }
+                resetValues();
+                break;
+            case MotionEvent.ACTION_POINTER_UP:
+                /* If a multitouch event took place and the original touch dictating
+                 * the movement of the hover cell has ended, then the dragging event
+                 * ends and the hover cell is animated to its corresponding position
+                 * in the listview. */
+
+                pointerIndex = (event.getAction() & MotionEvent.ACTION_POINTER_INDEX_MASK) >>
+                        MotionEvent.ACTION_POINTER_INDEX_SHIFT;
+                final int pointerId = event.getPointerId(pointerIndex);
+                if (pointerId == mActivePointerId) {
+                    dropHoverCell();
+                    resetValues();
+                }
+                break;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Watches the touch stream for a drag start, without any per-cell listeners.
+     * Returns true if a drag was started by this event.
+     */
+    private boolean detectDragStart(MotionEvent event) {
+        if ((mDragStartMode == DRAG_START_NONE) && (mDragHandleId == 0)) return false;
+
+        switch (event.getAction() & MotionEvent.ACTION_MASK) {
+            case MotionEvent.ACTION_DOWN:
+                cancelPendingDrag();
+                mDownX = event.getX();
+                mDownY = event.getY();
+                mDownTime = event.getEventTime();
+                mDownPointerId = event.getPointerId(0);
+                int position = findPositionByPoint((int) mDownX, (int) mDownY);
+                if (position == INVALID_POSITION) break;
+                View child = mHost.getChildAt(position - mHost.getPositionOfChild(0));
+                if (mDragHandleId != 0) {
+                    View handle = child.findViewById(mDragHandleId);
+                    if (handle == null) break;
+                    handle.getDrawingRect(mHandleFrame);
+                    mHost.getView().offsetDescendantRectToMyCoords(handle, mHandleFrame);
+                    if (!mHandleFrame.contains((int) mDownX, (int) mDownY)) break;
+                    mPendingDragOnHandle = true;
+                }
+                mPendingDragId = mHost.getItemId(position);
+                if ((mDragStartMode & DRAG_START_LONG_PRESS) != 0) {
+                    mHost.getView().postDelayed(mLongPressDragRunnable, ViewConfiguration.getLongPressTimeout());
+                }
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (mPendingDragId == INVALID_ID) break;
+                int pointerIndex = event.findPointerIndex(mDownPointerId);
+                if (pointerIndex < 0) break;
+                float dx = event.getX(pointerIndex) - mDownX;
+                float dy = event.getY(pointerIndex) - mDownY;
+                if ((dx * dx) + (dy * dy) <= mTouchSlop * mTouchSlop) break;
+
+                boolean held = ((mDragStartMode & DRAG_START_HOLD_AND_MOVE) != 0)
+                        && (event.getEventTime() - mDownTime >= mHoldTimeout);
+                if (mPendingDragOnHandle || held) {
+                    return startPendingDrag(true);
+                }
+                cancelPendingDrag();
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                cancelPendingDrag();
+                break;
+            default:
+                break;
+        }
+        return false;
+    }
+
+    private boolean startPendingDrag(boolean pastTouchSlop) {
+        long id = mPendingDragId;
+        cancelPendingDrag();
+        if (!liftItem(id)) return false;
+        if (pastTouchSlop) {
+            captureLiftedItem();
+        }
+        mActivePointerId = mDownPointerId;
+        mLastEventX = mDownX;
+        mLastEventY = mDownY;
+        if (mHost.getView().getParent() != null) {
+            mHost.getView().getParent().requestDisallowInterceptTouchEvent(true);
+        }
+        return true;
+    }
+
+    private void cancelPendingDrag() {
+        mHost.getView().removeCallbacks(mLongPressDragRunnable);
+        mPendingDragId = INVALID_ID;
+        mPendingDragOnHandle = false;
+    }
+
+    private final Runnable mLongPressDragRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (startPendingDrag(false)) {
+                //No event will reach the container itself until the drag ends, stop it tracking this gesture.
+                MotionEvent cancel = MotionEvent.obtain(mDownTime, SystemClock.uptimeMillis(),
+                        MotionEvent.ACTION_CANCEL, mDownX, mDownY, 0);
+                mHost.dispatchContainerTouchEvent(cancel);
+                cancel.recycle();
+                mHost.getView().performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
+            }
+        }
+    };
+
+    /**
+     * Catches changes in the mobile view after the container laid out its children.
+     */
+    public void onLayout() {
+        if (mState == STATE_LIFTED) {
+            View view = findViewForId(mItemId);
+            if (view != mLiftedView) {
+                setLiftedView(view);
+            }
+        }
+        if (mState != STATE_MOBILE) return;
+
+        //Only touch the visibility of views that changed, this also runs on every frame
+        //of an attached container.
+        View oldMobileView = mMobileView;
+        mMobileView = findViewForId(mItemId);
+        if ((oldMobileView != null) && (oldMobileView != mMobileView)) {
+            oldMobileView.setVisibility(View.VISIBLE);
+        }
+        if (mMobileView != null) {
+            mMobileItemPosition = getPositionOfView(mMobileView);
+            if (mMobileView.getVisibility() != View.INVISIBLE) {
+                mMobileView.setVisibility(View.INVISIBLE);
+            }
+        }
+        updateOriginalBounds();
+
+        if (oldMobileView != mMobileView) {
+            mCallback.onViewSwitched(mItemId, mMobileItemPosition, oldMobileView, mMobileView);
+        }
+    }
+
+    /**
+     * Called by the container when its visible range changed while scrolling.
+     */
+    public void onVisibleRangeChanged(int firstVisible, int lastVisible) {
+        if (mState != STATE_MOBILE) return;
+        boolean inRange = (mMobileItemPosition >= firstVisible) && (mMobileItemPosition <= lastVisible);
+        if (mMobileView != null) {
+            if (!inRange) {
+                mMobileView.setVisibility(View.VISIBLE);
+                mCallback.onViewSwitched(mItemId, mMobileItemPosition, mMobileView, null);
+                mMobileView = null;
+            }
+        } else if (inRange) {
+            mMobileView = findViewForId(mItemId);
+            if (mMobileView == null) {
+                //should not happen.
+                return;
+            }
+            mMobileView.setVisibility(View.INVISIBLE);
+            mCallback.onViewSwitched(mItemId, mMobileItemPosition, null, mMobileView);
+        }
+        updateOriginalBounds();
+        dispatchHoverPosition();
+    }
+
+    /**
+     * Called by the container when a scroll came to rest, to keep scrolling at an edge.
+     */
+    public void onScrollIdle() {
+        if ((mState == STATE_MOBILE) && mIsMobileScrolling) {
+            handleMobileCellScroll();
+        }
+    }
+
+    private void updateOriginalBounds() {
+        if (mMobileView == null) {
+            mHoverCellOriginalBounds = null;
+            return;
+        }
+        if (mHoverCellOriginalBounds == null)
+            mHoverCellOriginalBounds = new Rect(mMobileView.getLeft(), mMobileView.getTop(), mMobileView.getRight(), mMobileView.getBottom());
+        else {
+            mHoverCellOriginalBounds.set(mMobileView.getLeft(), mMobileView.getTop(), mMobileView.getRight(), mMobileView.getBottom());
+        }
+    }
+
+    private void dispatchHoverPosition() {
+        int position = mCallback.constrainPosition(mMobileItemPosition,
+                findPositionByPoint(mHoverCellCurrentBounds.centerX(), mHoverCellCurrentBounds.centerY()));
+        mCallback.onHoverPosition(mItemId, position, mMobileItemPosition, mHoverCellCurrentBounds, mHoverCellOriginalBounds);
+    }
+
+    private void dropHoverCell() {
+        if (mState != STATE_MOBILE) return;
+        int position = mCallback.constrainPosition(mMobileItemPosition,
+                findPositionByPoint(mHoverCellCurrentBounds.centerX(), mHoverCellCurrentBounds.centerY()));
+        mCallback.onHoverEnded(mItemId, position, mMobileItemPosition, mHoverCellCurrentBounds, mHoverCellOriginalBounds);
+    }
+
+    private void handleMobileCellScroll() {
+        int direction = autoScroll(mHoverCellCurrentBounds, mSmoothScrollAmountAtEdge);
+        if (direction != 0) {
+            mIsMobileScrolling = true;
+            mCallback.onAutoScroll(direction);
+        }
+    }
+
+    /**
+     * Ends any lift or drag without a drop.
+     */
+    public void cancel() {
+        if (mState == STATE_MOBILE) {
+            mCallback.onHoverCancelled(mItemId);
+        }
+        resetValues();
+    }
+
+    /**
+     * Resets all the appropriate fields to a default state
+     */
+    private void resetValues() {
+        if (mState != STATE_IDLE) {
+            mCallback.onDragEnded(mItemId);
+        }
+        mState = STATE_IDLE;
+        setLiftedView(null);
+        mHoverCellCurrentBounds = null;
+        if (mMobileView != null) {
+            mMobileView.setVisibility(View.VISIBLE);
+        }
+        mMobileView = null;
+        mItemId = INVALID_ID;
+        mDragStartPosition = INVALID_POSITION;
+        mResumePending = false;
+        mHoverCell = null;
+        mIsMobileScrolling = false;
+        mHoverHidden = false;
+        mLastEventX = Float.NaN;
+        mLastEventY = Float.NaN;
+        mActivePointerId = INVALID_POINTER_ID;
+        mHost.getView().invalidate();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.android.viewdragginganimation;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import java.util.ArrayList;
+
+/**
+ * Shares a single drag between several DynamicRecyclingViews.
+ * <p/>
+ * The view that started the drag keeps receiving the touch stream. When the hover
+ * cell's center leaves it and enters another registered view, that view is handed
+ * the same hover bitmap and stable ID and draws it instead. Only the view under the
+ * pointer is hit tested. On drop over a foreign view the TransferOperation is called
+ * once to change both data sets, and both views' DragHosts are notified together.
+ */
+public class DragCoordinator {
+
+    public interface TransferOperation {
+        void transfer(DynamicRecyclingView source, DynamicRecyclingView target, long stableID, int sourcePosition, int targetPosition);
+    }
+
+    private final ArrayList<DynamicRecyclingView> mViews = new ArrayList<>();
+    private TransferOperation mTransferOperation;
+
+    private DynamicRecyclingView mTargetView;
+
+    private final int[] mLocation = new int[2];
+    private final Rect mFrame = new Rect();
+    private final Rect mTargetBounds = new Rect();
+
+    public DragCoordinator(TransferOperation transferOperation) {
+        this.mTransferOperation = transferOperation;
+    }
+
+    public void register(DynamicRecyclingView view) {
+        if (!mViews.contains(view)) {
+            mViews.add(view);
+            view.setDragCoordinator(this);
+        }
+    }
+
+    public void unregister(DynamicRecyclingView view) {
+        if (mViews.remove(view)) {
+            view.setDragCoordinator(null);
+        }
+    }
+
+    public TransferOperation getTransferOperation() {
+        return mTransferOperation;
+    }
+
+    public void setTransferOperation(TransferOperation transferOperation) {
+        this.mTransferOperation = transferOperation;
+    }
+
+    /**
+     * Returns the view currently under the hover cell, or null if no drag is shared.
+     */
+    public DynamicRecyclingView getTargetView() {
+        return mTargetView;
+    }
+
+    /**
+     * Called by the source view on every move. Returns true if the hover cell is over
+     * a foreign view, in which case the source must skip its own hit testing.
+     */
+    boolean hoverMoved(DynamicRecyclingView source, Bitmap hoverCell, Rect hoverBounds) {
+        source.getLocationInWindow(mLocation);
+        int x = mLocation[0] + hoverBounds.centerX();
+        int y = mLocation[1] + hoverBounds.centerY();
+
+        DynamicRecyclingView target = findViewAt(x, y);
+        if (target == null) target = source;
+
+        if ((mTargetView != null) && (mTargetView != target) && (mTargetView != source)) {
+            mTargetView.clearForeignHover();
+        }
+        mTargetView = target;
+
+        if (target == source) {
+            source.setHoverAway(false);
+            return false;
+        }
+        target.getLocationInWindow(mLocation);
+        int left = x - mLocation[0] - (hoverBounds.width() / 2);
+        int top = y - mLocation[1] - (hoverBounds.height() / 2);
+        mTargetBounds.set(left, top, left + hoverBounds.width(), top + hoverBounds.height());
+        target.showForeignHover(hoverCell, mTargetBounds);
+        source.setHoverAway(true);
+        return true;
+    }
+
+    /**
+     * Called by the source view on drop. Returns true if the drop was consumed as a
+     * transfer into a foreign view.
+     */
+    boolean hoverEnded(DynamicRecyclingView source, long stableID, int sourcePosition) {
+        DynamicRecyclingView target = mTargetView;
+        mTargetView = null;
+        source.setHoverAway(false);
+        if ((target == null) || (target == source)) return false;
+
+        target.clearForeignHover();
+        int targetPosition = target.getPositionByPoint(mTargetBounds.centerX(), mTargetBounds.centerY());
+        if (targetPosition == DynamicRecyclingView.INVALID_POSITION) {
+            targetPosition = target.getCount();
+        }
+        if (mTransferOperation == null) return true;
+
+        mTransferOperation.transfer(source, target, stableID, sourcePosition, targetPosition);
+        if (source.getSectionIndex() != null) {
+            source.getSectionIndex().itemRemoved(sourcePosition);
+        }
+        if (target.getSectionIndex() != null) {
+            target.getSectionIndex().itemInserted(targetPosition);
+        }
+        source.animateDelete(sourcePosition);
+        target.animatePositionShift(targetPosition + 1, target.getCount(), 1);
+        target.animateItem(stableID, mTargetBounds.left, mTargetBounds.top);
+        source.getDragController().getHost().notifyItemRemoved(sourcePosition);
+        target.getDragController().getHost().notifyItemInserted(targetPosition);
+        return true;
+    }
+
+    /**
+     * Called by the source view when the drag is cancelled.
+     */
+    void hoverCancelled(DynamicRecyclingView source) {
+        if ((mTargetView != null) && (mTargetView != source)) {
+            mTargetView.clearForeignHover();
+        }
+        source.setHoverAway(false);
+        mTargetView = null;
+    }
+
+    private DynamicRecyclingView findViewAt(int windowX, int windowY) {
+        for (int i = 0, s = mViews.size(); i < s; i++) {
+            DynamicRecyclingView view = mViews.get(i);
+            if (!view.isShown()) continue;
+            view.getLocationInWindow(mLocation);
+            mFrame.set(mLocation[0], mLocation[1], mLocation[0] + view.getWidth(), mLocation[1] + view.getHeight());
+            if (mFrame.contains(windowX, windowY)) {
+                return view;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.android.viewdragginganimation;
+
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * What the DragController needs from the container it is attached to. Implement this to
+ * drive drags over a container other than an AbsListView.
+ */
+public interface DragHost {
+    /**
+     * Returns the container itself, for invalidation, posting and coordinate mapping.
+     */
+    ViewGroup getView();
+
+    /**
+     * Hands event to the container's own touch handling, bypassing the DragController.
+     * Used to cancel a gesture the container was tracking when a drag takes it over.
+     */
+    void dispatchContainerTouchEvent(MotionEvent event);
+
+    int getChildCount();
+
+    View getChildAt(int index);
+
+    /**
+     * Returns the adapter position shown by the child at index.
+     */
+    int getPositionOfChild(int index);
+
+    long getItemId(int position);
+
+    int getItemCount();
+
+    int getHeight();
+
+    /**
+     * Returns true if the content can scroll further, up for a negative direction and
+     * down for a positive one.
+     */
+    boolean canScrollVertically(int direction);
+
+    void scrollBy(int dy);
+
+    /**
+     * Called by the HoverOperations after the data moved an item. Containers with
+     * fine-grained change notifications should use them; others fall back to a full
+     * data set change. A swap or rotation is reported as the sequence of moves that
+     * produces it.
+     */
+    void notifyItemMoved(int fromPosition, int toPosition);
+
+    void notifyItemRemoved(int position);
+
+    void notifyItemInserted(int position);
+
+    /**
+     * Brackets the notifications for one data change, so a container that can only
+     * refresh everything does it once at endChanges(). Calls may nest.
+     */
+    void beginChanges();
+
+    void endChanges();
+}
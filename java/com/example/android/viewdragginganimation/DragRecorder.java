@@ -0,0 +1,97 @@
+package com.example.android.viewdragginganimation;
+
+import android.view.MotionEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Records the touch stream of drags in a compact binary form for DragReplayer.
+ * <p/>
+ * Every gesture is buffered from ACTION_DOWN. When it ends, the buffer is kept as the
+ * last recording only if a drag happened during it, so plain taps and scrolls are dropped.
+ * <p/>
+ * Format, big endian: int MAGIC, short VERSION, long downTime, int eventCount, then per
+ * event: short action, int milliseconds since downTime, byte pointerCount, and per
+ * pointer: byte pointerId, float x, float y.
+ */
+public class DragRecorder {
+
+    static final int MAGIC = 0x44525631; //DRV1
+    static final short VERSION = 1;
+
+    private final ByteArrayOutputStream mBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream mOut = new DataOutputStream(mBuffer);
+    private long mDownTime;
+    private int mEventCount;
+    private boolean mRecording = false;
+    private boolean mDragged = false;
+    private byte[] mLastDrag;
+
+    /**
+     * Called by DynamicRecyclingView for every touch event it dispatches.
+     */
+    void record(MotionEvent event, boolean cellIsMobile) {
+        int action = event.getAction() & MotionEvent.ACTION_MASK;
+        if (action == MotionEvent.ACTION_DOWN) {
+            mBuffer.reset();
+            mDownTime = event.getDownTime();
+            mEventCount = 0;
+            mDragged = false;
+            mRecording = true;
+        }
+        if (!mRecording) return;
+        mDragged |= cellIsMobile;
+
+        try {
+            mOut.writeShort(event.getAction());
+            mOut.writeInt((int) (event.getEventTime() - mDownTime));
+            int pointerCount = event.getPointerCount();
+            mOut.writeByte(pointerCount);
+            for (int i = 0; i < pointerCount; i++) {
+                mOut.writeByte(event.getPointerId(i));
+                mOut.writeFloat(event.getX(i));
+                mOut.writeFloat(event.getY(i));
+            }
+            mEventCount++;
+        } catch (IOException e) {
+            //ByteArrayOutputStream does not throw.
+        }
+
+        if ((action == MotionEvent.ACTION_UP) || (action == MotionEvent.ACTION_CANCEL)) {
+            mRecording = false;
+            if (mDragged) {
+                mLastDrag = toByteArray();
+            }
+        }
+    }
+
+    /**
+     * Returns the last completed drag, or null if none was recorded.
+     */
+    public byte[] getLastDrag() {
+        return mLastDrag;
+    }
+
+    public void clear() {
+        mBuffer.reset();
+        mRecording = false;
+        mLastDrag = null;
+    }
+
+    private byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(mBuffer.size() + 18);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(mDownTime);
+            out.writeInt(mEventCount);
+            mBuffer.writeTo(out);
+        } catch (IOException e) {
+            //ByteArrayOutputStream does not throw.
+        }
+        return bytes.toByteArray();
+    }
+}
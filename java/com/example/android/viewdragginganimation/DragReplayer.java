@@ -0,0 +1,160 @@
+package com.example.android.viewdragginganimation;
+
+import android.annotation.TargetApi;
+import android.database.DataSetObserver;
+import android.graphics.Rect;
+import android.os.Build;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.ListAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Feeds a DragRecorder recording back through a DynamicRecyclingView and reports what
+ * the HoverOperation saw and what each event cost. Meant for Robolectric or on-device
+ * tests, to turn a recorded session into a repeatable benchmark.
+ * <p/>
+ * Events are dispatched synchronously with their recorded timestamps shifted to start at
+ * downTime, so the drag start timeouts behave as recorded only if the test also advances
+ * the clock. Animations and idle work are not pumped. The events are built as
+ * touchscreen finger input, which needs API 14.
+ */
+@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+public class DragReplayer {
+
+    public static class Report {
+        public int events;
+        public int hoverPositionCalls;
+        public int hoverEndedCalls;
+        public int viewSwitchedCalls;
+        public int zoneChangedCalls;
+        public int zoneDroppedCalls;
+        /**
+         * Data set changes seen by the view's adapter, the moves the operation actually made.
+         */
+        public int dataChanges;
+        public long[] eventNanos;
+
+        public long totalNanos() {
+            long total = 0;
+            for (long nanos : eventNanos) total += nanos;
+            return total;
+        }
+
+        public long maxNanos() {
+            long max = 0;
+            for (long nanos : eventNanos) max = Math.max(max, nanos);
+            return max;
+        }
+    }
+
+    private final byte[] mRecording;
+
+    public DragReplayer(byte[] recording) {
+        this.mRecording = recording;
+    }
+
+    /**
+     * Replays the recording into view, starting at downTime. The view's HoverOperation is
+     * wrapped for the duration of the replay and restored afterwards.
+     */
+    public Report replay(DynamicRecyclingView view, long downTime) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(mRecording));
+        if (in.readInt() != DragRecorder.MAGIC) throw new IOException("Not a drag recording");
+        if (in.readShort() != DragRecorder.VERSION) throw new IOException("Unsupported drag recording version");
+        in.readLong();
+        int eventCount = in.readInt();
+
+        final Report report = new Report();
+        report.eventNanos = new long[eventCount];
+        final HoverOperation original = view.getHoverOperation();
+        view.setHoverOperation(new HoverOperation() {
+            @Override
+            public void hoverEnded(DynamicRecyclingView dynamicListView, long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds) {
+                report.hoverEndedCalls++;
+                if (original != null) original.hoverEnded(dynamicListView, stableID, currentPosition, originalPosition, hoverCellBounds, viewBounds);
+            }
+
+            @Override
+            public void hoverPosition(DynamicRecyclingView dynamicListView, long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds) {
+                report.hoverPositionCalls++;
+                if (original != null) original.hoverPosition(dynamicListView, stableID, currentPosition, originalPosition, hoverCellBounds, viewBounds);
+            }
+
+            @Override
+            public void viewSwitched(DynamicRecyclingView dynamicListView, long stableID, int position, View oldView, View newView) {
+                report.viewSwitchedCalls++;
+                if (original != null) original.viewSwitched(dynamicListView, stableID, position, oldView, newView);
+            }
+
+            @Override
+            public void hoverZoneChanged(DynamicRecyclingView dynamicListView, long stableID, int originalPosition, DropZone oldZone, DropZone newZone) {
+                report.zoneChangedCalls++;
+                if (original != null) original.hoverZoneChanged(dynamicListView, stableID, originalPosition, oldZone, newZone);
+            }
+
+            @Override
+            public void zoneDropped(DynamicRecyclingView dynamicListView, long stableID, int originalPosition, DropZone zone) {
+                report.zoneDroppedCalls++;
+                if (original != null) original.zoneDropped(dynamicListView, stableID, originalPosition, zone);
+            }
+        });
+
+        DataSetObserver changeCounter = new DataSetObserver() {
+            @Override
+            public void onChanged() {
+                report.dataChanges++;
+            }
+        };
+        ListAdapter adapter = view.getAdapter();
+        if (adapter != null) {
+            adapter.registerDataSetObserver(changeCounter);
+        }
+
+        MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[0];
+        MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[0];
+        try {
+            for (int e = 0; e < eventCount; e++) {
+                int action = in.readShort() & 0xFFFF;
+                long eventTime = downTime + in.readInt();
+                int pointerCount = in.readByte();
+                if (coords.length < pointerCount) {
+                    properties = new MotionEvent.PointerProperties[pointerCount];
+                    coords = new MotionEvent.PointerCoords[pointerCount];
+                    for (int i = 0; i < pointerCount; i++) {
+                        properties[i] = new MotionEvent.PointerProperties();
+                        coords[i] = new MotionEvent.PointerCoords();
+                    }
+                }
+                for (int i = 0; i < pointerCount; i++) {
+                    properties[i].clear();
+                    properties[i].id = in.readByte();
+                    properties[i].toolType = MotionEvent.TOOL_TYPE_FINGER;
+                    coords[i].clear();
+                    coords[i].x = in.readFloat();
+                    coords[i].y = in.readFloat();
+                    coords[i].pressure = 1f;
+                    coords[i].size = 1f;
+                }
+                MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, pointerCount,
+                        properties, coords, 0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+
+                long start = System.nanoTime();
+                view.dispatchTouchEvent(event);
+                report.eventNanos[e] = System.nanoTime() - start;
+                report.events++;
+                event.recycle();
+            }
+        } finally {
+            view.setHoverOperation(original);
+            if (adapter != null) {
+                adapter.unregisterDataSetObserver(changeCounter);
+            }
+        }
+        return report;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.android.viewdragginganimation;
+
+import android.graphics.Rect;
+
+/**
+ * A drop target outside the list, such as a trash can, archive or folder. Its bounds are
+ * in window coordinates. Register it with DynamicRecyclingView.addDropZone().
+ */
+public class DropZone {
+
+    public interface OnDropZoneHoverListener {
+        void onHoverEnter(DropZone zone, long stableID);
+
+        void onHoverExit(DropZone zone, long stableID);
+    }
+
+    private final int mId;
+    final Rect mBounds = new Rect();
+    private OnDropZoneHoverListener mListener;
+
+    public DropZone(int id, Rect windowBounds) {
+        this.mId = id;
+        this.mBounds.set(windowBounds);
+    }
+
+    public int getId() {
+        return mId;
+    }
+
+    public Rect getBounds() {
+        return new Rect(mBounds);
+    }
+
+    public OnDropZoneHoverListener getOnDropZoneHoverListener() {
+        return mListener;
+    }
+
+    public void setOnDropZoneHoverListener(OnDropZoneHoverListener listener) {
+        this.mListener = listener;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.android.viewdragginganimation;
+
+import android.graphics.Rect;
+import android.util.SparseArray;
+
+import java.util.ArrayList;
+
+/**
+ * Uniform grid over window coordinates bucketing the registered DropZones.
+ * <p/>
+ * Changes rebuild the buckets, which is fine for a handful of zones. A lookup hashes the
+ * point to one cell and checks only the zones in it, without allocating, so it can run on
+ * every move. Zones added later win where they overlap.
+ */
+class DropZoneIndex {
+
+    private static final int CELL_SHIFT = 7; //128px cells
+
+    private final ArrayList<DropZone> mZones = new ArrayList<>();
+    private final SparseArray<ArrayList<DropZone>> mCells = new SparseArray<>();
+
+    void add(DropZone zone) {
+        if (!mZones.contains(zone)) {
+            mZones.add(zone);
+            rebuild();
+        }
+    }
+
+    void remove(DropZone zone) {
+        if (mZones.remove(zone)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Moves a registered zone to new window bounds.
+     */
+    void setBounds(DropZone zone, Rect windowBounds) {
+        zone.mBounds.set(windowBounds);
+        rebuild();
+    }
+
+    boolean isEmpty() {
+        return mZones.isEmpty();
+    }
+
+    DropZone find(int windowX, int windowY) {
+        ArrayList<DropZone> cell = mCells.get(key(windowX >> CELL_SHIFT, windowY >> CELL_SHIFT));
+        if (cell == null) return null;
+        for (int i = cell.size() - 1; i >= 0; i--) {
+            DropZone zone = cell.get(i);
+            if (zone.mBounds.contains(windowX, windowY)) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    private void rebuild() {
+        mCells.clear();
+        for (int i = 0, s = mZones.size(); i < s; i++) {
+            DropZone zone = mZones.get(i);
+            Rect bounds = zone.mBounds;
+            if (bounds.isEmpty()) continue;
+            for (int cy = bounds.top >> CELL_SHIFT; cy <= (bounds.bottom - 1) >> CELL_SHIFT; cy++) {
+                for (int cx = bounds.left >> CELL_SHIFT; cx <= (bounds.right - 1) >> CELL_SHIFT; cx++) {
+                    int key = key(cx, cy);
+                    ArrayList<DropZone> cell = mCells.get(key);
+                    if (cell == null) {
+                        cell = new ArrayList<>();
+                        mCells.put(key, cell);
+                    }
+                    cell.add(zone);
+                }
+            }
+        }
+    }
+
+    private static int key(int cx, int cy) {
+        return (cy << 16) | (cx & 0xFFFF);
+    }
+}
@@ -25,20 +25,24 @@ import android.animation.Animator;
 import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
 import android.content.Context;
+import android.database.DataSetObserver;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.util.AttributeSet;
-import android.util.DisplayMetrics;
+import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewTreeObserver;
 import android.widget.AbsListView;
-import android.widget.Adapter;
 import android.widget.AdapterView;
 import android.widget.GridView;
+import android.widget.ListAdapter;
 
 /**
  * The dynamic listview is an extension of listview that supports cell dragging
@@ -49,6 +53,10 @@ import android.widget.GridView;
  * hover cell to determine when two cells should be swapped. If two cells should
  * be swapped, all the corresponding data mAnimatorSet and layout changes are handled here.
  * <p/>
+ * The drag itself, from the touch state machine to the hover cell, is run by a
+ * DragController over this view; this class maps its Callback onto the HoverOperation,
+ * the SectionIndex, drop zones, the DragCoordinator and the animations.
+ * <p/>
  * If no cell is selected, all the touch events are passed down to the listview
  * and behave normally. If one of the items in the listview experiences a
  * long press event, the contents of its current visible state are captured as
@@ -64,33 +72,60 @@ import android.widget.GridView;
 
 public class DynamicRecyclingView extends GridView {
 
-    private static final int SMOOTH_SCROLL_AMOUNT_AT_EDGE = 15;
+    public static final int DRAG_START_NONE = DragController.DRAG_START_NONE;
+    public static final int DRAG_START_LONG_PRESS = DragController.DRAG_START_LONG_PRESS;
+    public static final int DRAG_START_HOLD_AND_MOVE = DragController.DRAG_START_HOLD_AND_MOVE;
+
     private static final int MOVE_DURATION = 150;
-    private static final int LINE_THICKNESS = 15;
+    private static final int PREFETCH_FRAMES = 8;
 
-    private float mLastEventX = Float.NaN;
-    private float mLastEventY = Float.NaN;
+    private SavedState mRestoredDrag;
 
-    private boolean mCellIsMobile = false;
+    private final int INVALID_ID = -1;
 
-    private int mSmoothScrollAmountAtEdge = 0;
-    boolean mIsMobileScrolling = false;
+    private Bitmap mForeignHoverCell;
+    private Rect mForeignHoverBounds;
+    private final Paint mForeignHoverPaint = new Paint();
 
-    private final int INVALID_ID = -1;
-    private long mMobileItemId = INVALID_ID;
-    private int mMobileItemPosition = INVALID_ID;
-    private View mMobileView;
+    private HoverOperation mHoverOperation;
 
+    private int mPrefetchNext = INVALID_POSITION;
+    private int mPrefetchEnd = INVALID_POSITION;
+    private int mPrefetchStep = 0;
+    private boolean mPrefetchQueued = false;
 
-    private Bitmap mHoverCell;
-    private Rect mHoverCellCurrentBounds;
-    private Rect mHoverCellOriginalBounds;
-    private Paint mHoverCellPaint;
+    //Deliberately no initializer, GridView calls setNumColumns() from its constructor.
+    private int mRequestedNumColumns;
 
-    private final int INVALID_POINTER_ID = -1;
-    private int mActivePointerId = INVALID_POINTER_ID;
+    private SectionIndex mSectionIndex;
 
-    private HoverOperation mHoverOperation;
+    private final DropZoneIndex mDropZones = new DropZoneIndex();
+    private DropZone mCurrentDropZone;
+    private final int[] mWindowLocation = new int[2];
+
+    private DragRecorder mDragRecorder;
+
+    private VersionedList<?> mVersionedList;
+
+    private boolean mAdaptiveQuality = false;
+    private final FrameQualityGovernor mQualityGovernor = new FrameQualityGovernor();
+    private boolean mFrameMonitoring = false;
+    private long mFrameWorkNanos = 0;
+    private long mDrawStartNanos = 0;
+
+    private DragCoordinator mDragCoordinator;
+
+    private boolean mAutoAnimateChanges = false;
+    private boolean mLayoutDiffPending = false;
+    private final LayoutDiffAnimator mLayoutDiff = new LayoutDiffAnimator();
+    private long mLayoutDiffSkipId = INVALID_ID;
+    private boolean mPositionAnimationsSuspended = false;
+    private ListAdapter mObservedAdapter;
+
+    private final GridGeometry mGeometry = new GridGeometry();
+    private final Rect mGeometryRect = new Rect();
+
+    private final DragController mDragController = new DragController(new ViewDragHost());
 
     private AnimatorSet mAnimatorSet = new AnimatorSet();
 
@@ -111,57 +146,114 @@ public class DynamicRecyclingView extends GridView {
     }
 
     public void init(Context context) {
-        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
-        mSmoothScrollAmountAtEdge = (int) (SMOOTH_SCROLL_AMOUNT_AT_EDGE * metrics.density);
+        mForeignHoverPaint.setFilterBitmap(true);
+        mDragController.setCallback(mDragCallback);
         setOnScrollListener(mScrollListener);
     }
 
+    @Override
+    public void setAdapter(ListAdapter adapter) {
+        if (mObservedAdapter != null) {
+            mObservedAdapter.unregisterDataSetObserver(mLayoutDiffObserver);
+        }
+        mObservedAdapter = adapter;
+        if (mObservedAdapter != null) {
+            mObservedAdapter.registerDataSetObserver(mLayoutDiffObserver);
+        }
+        mLayoutDiffPending = false;
+        mGeometry.clear();
+        super.setAdapter(adapter);
+    }
+
     /**
-     * Draws a black border over the screenshot of the view passed in.
+     * When enabled, any data change is animated by diffing the visible items by stable ID
+     * before and after the layout, and the explicit animateDelete(), animatePositionShift()
+     * and animatePositionMove() calls become no-ops. Requires stable IDs.
      */
-    private Bitmap getBitmapWithBorder(View v) {
-        Bitmap bitmap = getBitmapFromView(v);
-        Canvas can = new Canvas(bitmap);
+    public void setAutoAnimateChanges(boolean autoAnimateChanges) {
+        this.mAutoAnimateChanges = autoAnimateChanges;
+        if (!autoAnimateChanges) {
+            setChildrenDrawingOrderEnabled(false);
+        }
+        if (autoAnimateChanges) {
+            mLayoutDiff.record(this);
+        }
+    }
 
-        Rect rect = new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight());
+    public boolean isAutoAnimateChanges() {
+        return mAutoAnimateChanges;
+    }
 
-        Paint paint = new Paint();
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(LINE_THICKNESS);
-        paint.setColor(Color.BLACK);
+    @Override
+    protected int getChildDrawingOrder(int childCount, int i) {
+        return mLayoutDiff.getChildDrawingOrder(childCount, i);
+    }
+
+    private DataSetObserver mLayoutDiffObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            if (mAutoAnimateChanges && !mLayoutDiffPending) {
+                mLayoutDiff.recordLocations(DynamicRecyclingView.this);
+                mLayoutDiffPending = true;
+            }
+        }
 
-        can.drawBitmap(bitmap, 0, 0, null);
-        can.drawRect(rect, paint);
+        @Override
+        public void onInvalidated() {
+            mLayoutDiffPending = false;
+        }
+    };
 
-        return bitmap;
+    @Override
+    public void setNumColumns(int numColumns) {
+        super.setNumColumns(numColumns);
+        mRequestedNumColumns = numColumns;
     }
 
     /**
-     * Returns a bitmap showing a screenshot of the view passed in.
+     * Inflates enough cells to fill the first screen on a background thread and hands
+     * them to the BindAheadAdapter as ready-to-bind views. Call after setAdapter(), as
+     * early as possible. Views finished before the first layout pass are used by it.
+     * Returns the number of cells being inflated.
      */
-    private Bitmap getBitmapFromView(View v) {
-        Bitmap bitmap = Bitmap.createBitmap(v.getWidth(), v.getHeight(), Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(bitmap);
-        v.draw(canvas);
-        return bitmap;
+    public int preInflate(final int layoutResId, int rowHeight) {
+        if (!(getAdapter() instanceof BindAheadAdapter) || rowHeight <= 0) return 0;
+        final BindAheadAdapter adapter = (BindAheadAdapter) getAdapter();
+
+        int columns = getNumColumns() > 0 ? getNumColumns() : mRequestedNumColumns;
+        if (columns <= 0) columns = 1;
+        int height = getHeight() > 0 ? getHeight() : getResources().getDisplayMetrics().heightPixels;
+        int rows = (height + rowHeight - 1) / rowHeight;
+        final int count = Math.min(rows * columns, adapter.getCount()) - adapter.getInflatedCount();
+        if (count <= 0) return 0;
+
+        //A private inflater, so the worker neither holds the lock of the one the adapter
+        //inflates with on the main thread nor runs the Activity's factories.
+        final LayoutInflater inflater = new BasicInflater(getContext());
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    adapter.offerInflated(inflater.inflate(layoutResId, DynamicRecyclingView.this, false));
+                }
+            }
+        }, "DynamicRecyclingView-preInflate").start();
+        return count;
     }
 
+    /**
+     * Returns the controller that runs the drags over this view.
+     */
+    public DragController getDragController() {
+        return mDragController;
+    }
 
     /**
      * Retrieves the view in the list corresponding to itemID
      */
     public View getViewForID(long itemID) {
-        int firstVisiblePosition = getFirstVisiblePosition();
-        Adapter adapter = getAdapter();
-        for (int i = 0; i < getChildCount(); i++) {
-            View v = getChildAt(i);
-            int position = firstVisiblePosition + i;
-            long id = adapter.getItemId(position);
-            if (id == itemID) {
-                return v;
-            }
-        }
-        return null;
+        if (getAdapter() == null) return null;
+        return mDragController.findViewForId(itemID);
     }
 
     /**
@@ -181,16 +273,7 @@ public class DynamicRecyclingView extends GridView {
      * Ignoring Visibility and potential matrix changes in the childview.
      */
     public int getPositionByPoint(int x, int y) {
-        Rect frame = new Rect();
-        final int count = getChildCount();
-        for (int i = count - 1; i >= 0; i--) {
-            final View child = getChildAt(i);
-            frame.set(child.getLeft(), child.getTop(), child.getRight(), child.getBottom());
-            if (frame.contains(x, y)) {
-                return getFirstVisiblePosition() + i;
-            }
-        }
-        return INVALID_POSITION;
+        return mDragController.findPositionByPoint(x, y);
     }
 
     /**
@@ -201,83 +284,88 @@ public class DynamicRecyclingView extends GridView {
     @Override
     protected void dispatchDraw(Canvas canvas) {
         super.dispatchDraw(canvas);
-        if (mHoverCell != null) {
-            canvas.drawBitmap(mHoverCell, mHoverCellCurrentBounds.left, mHoverCellCurrentBounds.top, mHoverCellPaint);
+        mDragController.drawHover(canvas);
+        if (mForeignHoverCell != null) {
+            canvas.drawBitmap(mForeignHoverCell, null, mForeignHoverBounds, mForeignHoverPaint);
+        }
+        if (mDrawStartNanos != 0) {
+            long work = mFrameWorkNanos + (System.nanoTime() - mDrawStartNanos);
+            mDrawStartNanos = 0;
+            mFrameWorkNanos = 0;
+            mQualityGovernor.onFrame(work);
         }
     }
 
     /**
-     * If there is no MobileCell work like normal view.
-     * Otherwise process the onTouchEvents.
+     * Sets how a touch on a cell starts a drag, DRAG_START_LONG_PRESS and/or
+     * DRAG_START_HOLD_AND_MOVE. DRAG_START_NONE leaves it to startMoveById().
      */
-    @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        if (!mCellIsMobile) return super.onTouchEvent(event);
-
-        switch (event.getAction() & MotionEvent.ACTION_MASK) {
-            case MotionEvent.ACTION_MOVE:
-                int pointerIndex;
-                if ((Float.isNaN(mLastEventX)) || Float.isNaN(mLastEventY)) {
-                    mActivePointerId = event.getPointerId(0);
-                    pointerIndex = event.findPointerIndex(mActivePointerId);
-                    mLastEventX = event.getX(pointerIndex);
-                    mLastEventY = event.getY(pointerIndex);
-                }
-                invalidate();
+    public void setDragStartMode(int dragStartMode) {
+        mDragController.setDragStartMode(dragStartMode);
+    }
 
-                if (mActivePointerId == INVALID_POINTER_ID) {
-                    break;
-                }
+    public int getDragStartMode() {
+        return mDragController.getDragStartMode();
+    }
+
+    /**
+     * Sets the id of a view within each cell that acts as a drag handle, see
+     * DragController.setDragHandleId().
+     */
+    public void setDragHandleId(int dragHandleId) {
+        mDragController.setDragHandleId(dragHandleId);
+    }
 
-                pointerIndex = event.findPointerIndex(mActivePointerId);
-                float thisEventX = event.getX(pointerIndex);
-                float thisEventY = event.getY(pointerIndex);
+    public int getDragHandleId() {
+        return mDragController.getDragHandleId();
+    }
 
-                float deltaX = thisEventX - mLastEventX;
-                float deltaY = thisEventY - mLastEventY;
+    /**
+     * Sets how long a touch must stay within the touch slop before moving starts a drag
+     * in DRAG_START_HOLD_AND_MOVE mode, see DragController.setHoldTimeout().
+     */
+    public void setHoldTimeout(int holdTimeoutMillis) {
+        mDragController.setHoldTimeout(holdTimeoutMillis);
+    }
 
-                if (mCellIsMobile) {
-                    mHoverCellCurrentBounds.offsetTo(
-                            (int) (mHoverCellCurrentBounds.left + deltaX),
-                            (int) (mHoverCellCurrentBounds.top + deltaY));
+    public int getHoldTimeout() {
+        return mDragController.getHoldTimeout();
+    }
 
-                    notifyHoverPosition();
-                    mIsMobileScrolling = false;
-                    handleMobileCellScroll();
-                    mLastEventX = (int) thisEventX;
-                    mLastEventY = (int) thisEventY;
-                }
+    public DragRecorder getDragRecorder() {
+        return mDragRecorder;
+    }
 
-                break;
-
-            case MotionEvent.ACTION_UP:
-                notifyHoverEnded();
-                animateDrop();
-
-                resetValues();
-                break;
-            case MotionEvent.ACTION_CANCEL:
-                resetValues();
-                break;
-            case MotionEvent.ACTION_POINTER_UP:
-                /* If a multitouch event took place and the original touch dictating
-                 * the movement of the hover cell has ended, then the dragging event
-                 * ends and the hover cell is animated to its corresponding position
-                 * in the listview. */
-
-                pointerIndex = (event.getAction() & MotionEvent.ACTION_POINTER_INDEX_MASK) >>
-                        MotionEvent.ACTION_POINTER_INDEX_SHIFT;
-                final int pointerId = event.getPointerId(pointerIndex);
-                if (pointerId == mActivePointerId) {
-                    notifyHoverEnded();
-                    animateDrop();
-                    resetValues();
-                }
-                break;
-            default:
-                break;
+    /**
+     * Records the touch stream of every drag into dragRecorder, null to stop.
+     */
+    public void setDragRecorder(DragRecorder dragRecorder) {
+        this.mDragRecorder = dragRecorder;
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent event) {
+        boolean handled = super.dispatchTouchEvent(event);
+        if (mDragRecorder != null) {
+            mDragRecorder.record(event, mDragController.isHoverMobile());
         }
-        return true;
+        return handled;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        if (mDragController.onInterceptTouchEvent(event)) return true;
+        return super.onInterceptTouchEvent(event);
+    }
+
+    /**
+     * If there is no MobileCell work like normal view.
+     * Otherwise the DragController processes the onTouchEvents.
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mDragController.onTouchEvent(event)) return true;
+        return super.onTouchEvent(event);
     }
 
     /**
@@ -285,49 +373,115 @@ public class DynamicRecyclingView extends GridView {
      */
     @Override
     protected void layoutChildren() {
+        long layoutStart = mFrameMonitoring ? System.nanoTime() : 0;
         super.layoutChildren();
 
-        if (mMobileView != null) {
-            mMobileView.setVisibility(VISIBLE);
+        if (mRestoredDrag != null) {
+            if (getViewForID(mRestoredDrag.mStableId) != null) {
+                resumeRestoredDrag();
+            } else if ((mRestoredDrag.mCurrentPosition != INVALID_POSITION) && (getChildCount() > 0)) {
+                //the new layout does not show the item, bring it into view once.
+                final int position = mRestoredDrag.mCurrentPosition;
+                mRestoredDrag.mCurrentPosition = INVALID_POSITION;
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        setSelection(position);
+                    }
+                });
+            } else if (getChildCount() > 0) {
+                //the item is gone.
+                mRestoredDrag = null;
+            }
         }
-        View oldMobileView = mMobileView;
-        mMobileView = getViewForID(mMobileItemId);
 
-        if (mMobileView != null) {
-            mMobileItemPosition = getPositionForView(mMobileView);
-            mMobileView.setVisibility(INVISIBLE);
-        }
-        updateOriginalBounds();
+        mDragController.onLayout();
 
-        if ((mHoverOperation != null) && (oldMobileView != mMobileView)) {
-            mHoverOperation.viewSwitched(this, mMobileItemId, mMobileItemPosition, oldMobileView, mMobileView);
+        if (mLayoutDiffPending) {
+            mLayoutDiffPending = false;
+            long skipId = (mLayoutDiffSkipId != INVALID_ID) ? mLayoutDiffSkipId
+                    : (mDragController.isHoverMobile() ? mDragController.getItemId() : INVALID_ID);
+            mLayoutDiffSkipId = INVALID_ID;
+            if (mLayoutDiff.apply(this, skipId)) {
+                animateToLocations();
+            }
+            //Only pay for the custom drawing order while moved items slide over the others.
+            setChildrenDrawingOrderEnabled(mLayoutDiff.hasDrawingOrder());
+            mLayoutDiff.record(this);
+        }
+        if (layoutStart != 0) {
+            mFrameWorkNanos += System.nanoTime() - layoutStart;
         }
     }
 
 
     /**
      * Start the Hover Cell for the given visible ID. To be called externally.
+     * The cell is only lifted here; the snapshot is captured once the pointer moves
+     * past the touch slop, and a tap or cancel before that just drops the lift.
      */
     public boolean startMoveById(long layerId) {
-        if (!mCellIsMobile) {
-
-            mMobileItemId = layerId;
-            mMobileView = getViewForID(mMobileItemId);
-            if (mMobileView == null) return false;
-            mMobileItemPosition = getPositionForView(mMobileView);
-            mMobileView.setVisibility(INVISIBLE);
+        return mDragController.liftItem(layerId);
+    }
 
-            mHoverCell = getBitmapWithBorder(mMobileView);
-            updateOriginalBounds();
-            mHoverCellCurrentBounds = new Rect(mHoverCellOriginalBounds);
-            mHoverCellPaint = new Paint();
+    @Override
+    public Parcelable onSaveInstanceState() {
+        Parcelable superState = super.onSaveInstanceState();
+        if (!mDragController.isDragging()) return superState;
+
+        SavedState state = new SavedState(superState);
+        state.mDragState = mDragController.getState();
+        state.mStableId = mDragController.getItemId();
+        if (mDragController.isResumePending()) {
+            //not moved since the last restore, save it as it was.
+            state.mDragState = DragController.STATE_MOBILE;
+            state.mOriginalPosition = mDragController.getDragStartPosition();
+            View liftedView = mDragController.getLiftedView();
+            state.mCurrentPosition = (liftedView != null) ? getPositionForView(liftedView) : INVALID_POSITION;
+            state.mHoverX = mDragController.getResumeHoverX();
+            state.mHoverY = mDragController.getResumeHoverY();
+        } else if (mDragController.isHoverMobile()) {
+            state.mOriginalPosition = mDragController.getDragStartPosition();
+            state.mCurrentPosition = mDragController.getMobileItemPosition();
+            Rect bounds = mDragController.getHoverCellBounds();
+            if ((bounds != null) && (getWidth() > 0) && (getHeight() > 0)) {
+                state.mHoverX = bounds.left / (float) getWidth();
+                state.mHoverY = bounds.top / (float) getHeight();
+            }
+        } else {
+            View liftedView = mDragController.getLiftedView();
+            state.mOriginalPosition = (liftedView != null) ? getPositionForView(liftedView) : INVALID_POSITION;
+            state.mCurrentPosition = state.mOriginalPosition;
+        }
+        return state;
+    }
 
-            invalidate();
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        mRestoredDrag = savedState;
+        requestLayout();
+    }
 
-            mCellIsMobile = true;
-            return true;
+    /**
+     * Resumes a drag saved across a configuration change once its item is laid out again.
+     * The item is only lifted here, so the layout is not held up by a capture. The next
+     * touch's first move captures it and puts the hover cell back at the same relative spot.
+     */
+    private void resumeRestoredDrag() {
+        SavedState restored = mRestoredDrag;
+        mRestoredDrag = null;
+        if (mDragController.isDragging()) return;
+        if (restored.mDragState != DragController.STATE_MOBILE) {
+            startMoveById(restored.mStableId);
+            return;
         }
-        return false;
+        mDragController.resumeDrag(restored.mStableId, restored.mOriginalPosition, restored.mHoverX, restored.mHoverY);
     }
 
     /**
@@ -342,19 +496,6 @@ public class DynamicRecyclingView extends GridView {
         };
     }
 
-    private void updateOriginalBounds() {
-        if (mMobileView == null) {
-            mHoverCellOriginalBounds = null;
-            return;
-        }
-        if (mHoverCellOriginalBounds == null)
-            mHoverCellOriginalBounds = new Rect(mMobileView.getLeft(), mMobileView.getTop(), mMobileView.getRight(), mMobileView.getBottom());
-        else {
-            mHoverCellOriginalBounds.set(mMobileView.getLeft(), mMobileView.getTop(), mMobileView.getRight(), mMobileView.getBottom());
-        }
-    }
-
-
     /**
      * Call to set animators and remove translations from all children to return to no translations.
      * All animators set a translation and call this routine to merge.
@@ -366,9 +507,23 @@ public class DynamicRecyclingView extends GridView {
             mAnimatorSet.cancel();
         }
         mAnimatorSet = new AnimatorSet();
+        int quality = getQualityLevel();
+        int radius = Integer.MAX_VALUE;
+        Rect hoverBounds = mDragController.getHoverCellBounds();
+        if ((quality >= FrameQualityGovernor.QUALITY_NEAR_ANIMATIONS) && (hoverBounds != null)) {
+            radius = 2 * Math.max(hoverBounds.width(), hoverBounds.height());
+        }
         //Animate the translated children.
         for (int i = 0, s = getChildCount(); i < s; i++) {
             View v = getChildAt(i);
+            if ((quality >= FrameQualityGovernor.QUALITY_NO_ANIMATIONS) || ((radius != Integer.MAX_VALUE)
+                    && (Math.abs(v.getLeft() + (v.getWidth() / 2) - hoverBounds.centerX()) > radius
+                    || Math.abs(v.getTop() + (v.getHeight() / 2) - hoverBounds.centerY()) > radius))) {
+                //degraded quality, snap into place.
+                v.setTranslationX(0);
+                v.setTranslationY(0);
+                continue;
+            }
             if (v.getTranslationX() != 0) {
                 Animator animatorX = ObjectAnimator.ofFloat(v, View.TRANSLATION_X, 0);
                 mAnimatorSet.play(animatorX);
@@ -378,11 +533,12 @@ public class DynamicRecyclingView extends GridView {
                 mAnimatorSet.play(animatorY);
             }
         }
-        mAnimatorSet.setDuration(MOVE_DURATION);
+        mAnimatorSet.setDuration((quality >= FrameQualityGovernor.QUALITY_SHORT_ANIMATIONS) ? MOVE_DURATION / 2 : MOVE_DURATION);
         mAnimatorSet.start();
     }
 
     public void animateDelete(final int deletedIndex) {
+        if (mAutoAnimateChanges || mPositionAnimationsSuspended) return;
         final ViewTreeObserver observer = getViewTreeObserver();
         final int originalFirstVisiblePosition = getFirstVisiblePosition();
 
@@ -395,6 +551,7 @@ public class DynamicRecyclingView extends GridView {
 
                 int shiftamount = firstVisiblePosition - originalFirstVisiblePosition;
 
+                mGeometry.measure(DynamicRecyclingView.this);
                 for (int i = 0; i < getChildCount(); i++) {
                     int position = firstVisiblePosition + i;
                     if (position == deletedIndex) shiftamount++;
@@ -402,10 +559,7 @@ public class DynamicRecyclingView extends GridView {
                     View v0 = getChildAt(i);
                     if (v0 == null) continue;
 
-                    View v1 = getChildAt((i + shiftamount));
-                    if (v1 == null) continue;
-                    v0.setTranslationX(v1.getLeft() - v0.getLeft() + v0.getTranslationX());
-                    v0.setTranslationY(v1.getTop() - v0.getTop() + v0.getTranslationY());
+                    translateFromPosition(v0, position + shiftamount);
                 }
                 animateToLocations();
                 return true;
@@ -414,6 +568,7 @@ public class DynamicRecyclingView extends GridView {
     }
 
     public void animatePositionShift(final int shiftstart, final int shiftend, final int shiftamount) {
+        if (mAutoAnimateChanges || mPositionAnimationsSuspended) return;
         final ViewTreeObserver observer = getViewTreeObserver();
         observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
             @Override
@@ -422,17 +577,15 @@ public class DynamicRecyclingView extends GridView {
 
                 int firstVisiblePosition = getFirstVisiblePosition();
 
+                //Only the visible part of the range can show any motion.
                 int start = Math.max(shiftstart - firstVisiblePosition, 0);
                 int end = Math.min(shiftend - firstVisiblePosition, getChildCount() - 1);
+                mGeometry.measure(DynamicRecyclingView.this);
                 for (int i = start; i <= end; i++) {
                     View v0 = getChildAt(i);
                     if (v0 == null) continue;
 
-                    View v1 = getChildAt((i - shiftamount));
-                    if (v1 == null) continue;
-
-                    v0.setTranslationX(v1.getLeft() - v0.getLeft() + v0.getTranslationX());
-                    v0.setTranslationY(v1.getTop() - v0.getTop() + v0.getTranslationY());
+                    translateFromPosition(v0, firstVisiblePosition + i - shiftamount);
                 }
                 animateToLocations();
                 return true;
@@ -441,12 +594,14 @@ public class DynamicRecyclingView extends GridView {
     }
 
     public void animatePositionMove(final int... animatePositions) {
+        if (mAutoAnimateChanges || mPositionAnimationsSuspended) return;
         final ViewTreeObserver observer = getViewTreeObserver();
         observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
             @Override
             public boolean onPreDraw() {
                 observer.removeOnPreDrawListener(this);
                 int firstVisiblePosition = getFirstVisiblePosition();
+                mGeometry.measure(DynamicRecyclingView.this);
                 for (int i = 0, s = animatePositions.length; i < s; i += 2) {
                     int p0 = animatePositions[i];
                     int p1 = animatePositions[i + 1];
@@ -454,11 +609,7 @@ public class DynamicRecyclingView extends GridView {
                     View v0 = getChildAt(p0 - firstVisiblePosition);
                     if (v0 == null) continue;
 
-                    View v1 = getChildAt(p1 - firstVisiblePosition);
-                    if (v1 == null) continue;
-
-                    v0.setTranslationX(v1.getLeft() - v0.getLeft() + v0.getTranslationX());
-                    v0.setTranslationY(v1.getTop() - v0.getTop() + v0.getTranslationY());
+                    translateFromPosition(v0, p1);
                 }
                 animateToLocations();
                 return true;
@@ -466,6 +617,24 @@ public class DynamicRecyclingView extends GridView {
         });
     }
 
+    /**
+     * Translates v so it is drawn where fromPosition is laid out. That is taken from the
+     * child showing it or, for positions off screen, from the geometry model. A start
+     * beyond the viewport is clamped to just outside it, so rows entering the view slide
+     * in rather than crossing the whole distance in a blur.
+     */
+    private void translateFromPosition(View v, int fromPosition) {
+        View from = getChildAt(fromPosition - getFirstVisiblePosition());
+        if (from != null) {
+            mGeometryRect.set(from.getLeft(), from.getTop(), from.getRight(), from.getBottom());
+        } else if (!mGeometry.getPositionRect(fromPosition, mGeometryRect)) {
+            return;
+        }
+        int top = Math.max(Math.min(mGeometryRect.top, getHeight()), -v.getHeight());
+        v.setTranslationX(mGeometryRect.left - v.getLeft() + v.getTranslationX());
+        v.setTranslationY(top - v.getTop() + v.getTranslationY());
+    }
+
     public void animateItem(final long id, final float left, final float top) {
         final ViewTreeObserver observer = getViewTreeObserver();
         observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
@@ -484,95 +653,311 @@ public class DynamicRecyclingView extends GridView {
     }
 
     /**
-     * Internal animation for dropped hovercell to fit into place.
+     * Changes the alpha of the hovercell paint.
+     */
+
+    public void setHoverCellAlpha(int alpha) {
+        mDragController.setHoverCellAlpha(alpha);
+    }
+
+    /**
+     * Ends the hover, either as a transfer to another coordinated view or locally.
+     */
+    private void dropHoverCell(long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds) {
+        if ((mDragCoordinator != null) && (mDragCoordinator.hoverEnded(this, stableID, originalPosition))) {
+            return;
+        }
+        if (mCurrentDropZone != null) {
+            DropZone zone = mCurrentDropZone;
+            setCurrentDropZone(null);
+            if (mHoverOperation != null) {
+                mHoverOperation.zoneDropped(this, stableID, originalPosition, zone);
+            }
+            return;
+        }
+        //A version that arrived during the drag is rebased in on unpin, after the
+        //HoverOperation computed its positions against the pinned one. Animate the drop
+        //by stable ID across that layout instead of by those positions.
+        boolean rebasing = (mVersionedList != null) && mVersionedList.hasPendingVersion();
+        if (rebasing) {
+            mLayoutDiff.record(this);
+            mPositionAnimationsSuspended = true;
+        }
+        if (mHoverOperation != null) {
+            mHoverOperation.hoverEnded(this, stableID, currentPosition, originalPosition, hoverCellBounds, viewBounds);
+        }
+        mPositionAnimationsSuspended = false;
+        if (rebasing) {
+            mLayoutDiffPending = true;
+            mLayoutDiffSkipId = stableID;
+        }
+        //Internal animation for dropped hovercell to fit into place.
+        animateItem(stableID, hoverCellBounds.left, hoverCellBounds.top);
+    }
+
+    /**
+     * Maps the DragController's events onto the HoverOperation and the rest of the
+     * list's drag features.
+     */
+    private final DragController.Callback mDragCallback = new DragController.Callback() {
+        @Override
+        public boolean canDrag(int position) {
+            return (mSectionIndex == null) || !mSectionIndex.isHeader(position);
+        }
+
+        @Override
+        public float getHoverCellScale() {
+            //At QUALITY_LOW_RES_HOVER the snapshot is taken at half scale: a quarter of the
+            //pixels to draw, allocate and upload, drawn scaled up to its bounds.
+            return (getQualityLevel() >= FrameQualityGovernor.QUALITY_LOW_RES_HOVER) ? 0.5f : 1f;
+        }
+
+        @Override
+        public void onDragStarted(long stableID, int position) {
+            if (mAdaptiveQuality) {
+                startFrameMonitor();
+            }
+            if (mVersionedList != null) {
+                mVersionedList.pin();
+            }
+        }
+
+        @Override
+        public int constrainPosition(int originalPosition, int position) {
+            if (mSectionIndex == null) return position;
+            return mSectionIndex.constrainPosition(originalPosition, position);
+        }
+
+        @Override
+        public boolean onHoverMoved(long stableID, Bitmap hoverCell, Rect hoverCellBounds) {
+            //Drop zones follow every move. Over another coordinated view the drop goes there,
+            //so no zone may stay highlighted.
+            if ((mDragCoordinator != null) && mDragCoordinator.hoverMoved(DynamicRecyclingView.this, hoverCell, hoverCellBounds)) {
+                setCurrentDropZone(null);
+                return true;
+            }
+            updateDropZone(hoverCellBounds);
+            return false;
+        }
+
+        @Override
+        public void onHoverPosition(long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds) {
+            if (mHoverOperation != null) {
+                mHoverOperation.hoverPosition(DynamicRecyclingView.this, stableID, currentPosition, originalPosition, hoverCellBounds, viewBounds);
+            }
+        }
+
+        @Override
+        public void onHoverEnded(long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds) {
+            dropHoverCell(stableID, currentPosition, originalPosition, hoverCellBounds, viewBounds);
+        }
+
+        @Override
+        public void onHoverCancelled(long stableID) {
+            if (mDragCoordinator != null) {
+                mDragCoordinator.hoverCancelled(DynamicRecyclingView.this);
+            }
+            setCurrentDropZone(null);
+        }
+
+        @Override
+        public void onViewSwitched(long stableID, int position, View oldView, View newView) {
+            if (mHoverOperation != null) {
+                mHoverOperation.viewSwitched(DynamicRecyclingView.this, stableID, position, oldView, newView);
+            }
+        }
+
+        @Override
+        public void onAutoScroll(int direction) {
+            schedulePrefetch(direction);
+        }
+
+        @Override
+        public void onDragEnded(long stableID) {
+            setCurrentDropZone(null);
+            if (mVersionedList != null) {
+                mVersionedList.unpin();
+            }
+            if (mFrameMonitoring) {
+                stopFrameMonitor();
+                //the next drag starts one level better, and captures its hover cell at that level.
+                mQualityGovernor.restart();
+            }
+        }
+    };
+
+    public DragCoordinator getDragCoordinator() {
+        return mDragCoordinator;
+    }
+
+    /**
+     * Set by DragCoordinator.register(), use that instead.
      */
-    private void animateDrop() {
-        animateItem(mMobileItemId, mHoverCellCurrentBounds.left, mHoverCellCurrentBounds.top);
+    void setDragCoordinator(DragCoordinator dragCoordinator) {
+        this.mDragCoordinator = dragCoordinator;
     }
 
     /**
-     * Resets all the appropriate fields to a default state
+     * Shows a hover cell owned by another coordinated view. The bitmap is shared, not copied.
      */
-    private void resetValues() {
-        mCellIsMobile = false;
-        mHoverCellCurrentBounds = null;
-        if (mMobileView != null) {
-            mMobileView.setVisibility(VISIBLE);
+    void showForeignHover(Bitmap hoverCell, Rect bounds) {
+        if (mDragController.isHoverMobile()) return;
+        mForeignHoverCell = hoverCell;
+        if (mForeignHoverBounds == null) {
+            mForeignHoverBounds = new Rect(bounds);
+        } else {
+            mForeignHoverBounds.set(bounds);
         }
-        mMobileView = null;
-        mMobileItemId = INVALID_ID;
-        mHoverCell = null;
-        mIsMobileScrolling = false;
-        mLastEventX = Float.NaN;
-        mLastEventY = Float.NaN;
         invalidate();
     }
 
+    void clearForeignHover() {
+        if (mForeignHoverCell == null) return;
+        mForeignHoverCell = null;
+        invalidate();
+    }
 
     /**
-     * Changes the alpha of the hovercell paint.
+     * Hides this view's own hover cell while another coordinated view draws it.
      */
+    void setHoverAway(boolean away) {
+        mDragController.setHoverHidden(away);
+    }
 
-    public void setHoverCellAlpha(int alpha) {
-        mHoverCellPaint.setAlpha(alpha);
+
+    public VersionedList<?> getVersionedList() {
+        return mVersionedList;
     }
 
+    /**
+     * Sets the backing data model if it can change while a drag is in progress. It is
+     * pinned while the hover cell is mobile and rebased onto the latest version on drop.
+     */
+    public void setVersionedList(VersionedList<?> versionedList) {
+        this.mVersionedList = versionedList;
+    }
 
-    private void notifyPositionViewFrameChange(int currentStart, int currentEnd, int previousStart, int previousEnd) {
-        if (mCellIsMobile) {
-            boolean inRange = (mMobileItemPosition >= currentStart) && (mMobileItemPosition <= currentEnd);
-            if (mMobileView != null) {
-                if (!inRange) {
-                    mMobileView.setVisibility(VISIBLE);
-                    if (mHoverOperation != null) {
-                        mHoverOperation.viewSwitched(this, mMobileItemId, mMobileItemPosition, mMobileView, null);
-                    }
-                    mMobileView = null;
-                }
-                updateOriginalBounds();
-            } else {
-                if (inRange) {
-                    mMobileView = getViewForID(mMobileItemId);
-                    if (mMobileView == null) {
-                        //should not happen.
-                        return;
-                    }
-                    mMobileView.setVisibility(INVISIBLE);
-                    if (mHoverOperation != null) {
-                        mHoverOperation.viewSwitched(this, mMobileItemId, mMobileItemPosition, null, mMobileView);
-                    }
-                }
-                updateOriginalBounds();
-            }
-            notifyHoverPosition();
+    /**
+     * When enabled, the layout and draw time of each frame is measured during drags. While
+     * it runs over the budget the drag quality steps down: shorter animations, then only
+     * children near the hover cell animate, then a half resolution hover cell captured
+     * when the next drag starts, then no animations. It steps back up once frames are
+     * within budget again, and each new drag starts one level better than the last ended.
+     */
+    public void setAdaptiveQuality(boolean adaptiveQuality) {
+        this.mAdaptiveQuality = adaptiveQuality;
+        if (!adaptiveQuality) {
+            stopFrameMonitor();
+            mQualityGovernor.reset();
         }
+    }
+
+    public boolean isAdaptiveQuality() {
+        return mAdaptiveQuality;
+    }
+
+    public void setFrameBudgetMillis(float budgetMillis) {
+        mQualityGovernor.setBudgetNanos((long) (budgetMillis * 1000000));
+    }
+
+    private int getQualityLevel() {
+        return mAdaptiveQuality ? mQualityGovernor.getLevel() : FrameQualityGovernor.QUALITY_FULL;
+    }
 
+    private void startFrameMonitor() {
+        mFrameWorkNanos = 0;
+        mDrawStartNanos = 0;
+        mFrameMonitoring = true;
+        getViewTreeObserver().addOnPreDrawListener(mFrameMonitor);
+    }
+
+    private void stopFrameMonitor() {
+        mFrameMonitoring = false;
+        mDrawStartNanos = 0;
+        ViewTreeObserver observer = getViewTreeObserver();
+        if (observer.isAlive()) {
+            observer.removeOnPreDrawListener(mFrameMonitor);
+        }
     }
 
     /**
-     * Notify the HoverCellEvent holder so it can deal with dynamic changes.
-     * Calls when the hovercell is dropped.
+     * Starts timing the draw part of a frame, dispatchDraw() adds it to the layout time.
      */
+    private ViewTreeObserver.OnPreDrawListener mFrameMonitor = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            if (mFrameMonitoring) {
+                mDrawStartNanos = System.nanoTime();
+            }
+            return true;
+        }
+    };
 
-    private void notifyHoverEnded() {
-        if (mHoverOperation != null) {
-            int position = getPositionByPoint(mHoverCellCurrentBounds.centerX(), mHoverCellCurrentBounds.centerY());
-            mHoverOperation.hoverEnded(DynamicRecyclingView.this, mMobileItemId, position, mMobileItemPosition, mHoverCellCurrentBounds, mHoverCellOriginalBounds);
+    /**
+     * Registers a drop target outside the list. While the hover cell's center is over it,
+     * the zone gets hover feedback and the HoverOperation gets hoverZoneChanged().
+     * A drop there calls zoneDropped() instead of hoverEnded().
+     */
+    public void addDropZone(DropZone zone) {
+        mDropZones.add(zone);
+    }
+
+    public void removeDropZone(DropZone zone) {
+        if (zone == mCurrentDropZone) {
+            setCurrentDropZone(null);
         }
+        mDropZones.remove(zone);
     }
 
     /**
-     * Notify the HoverCellEvent holder so it can deal with dynamic changes.
-     * Called when the hovercell is moved.
+     * Moves a registered drop zone, in window coordinates.
      */
-    private void notifyHoverPosition() {
-        //dynamicListView.getPositionByPoint(hoverCellBounds.centerX(), hoverCellBounds.centerY());
+    public void setDropZoneBounds(DropZone zone, Rect windowBounds) {
+        mDropZones.setBounds(zone, windowBounds);
+    }
+
+    private void updateDropZone(Rect hoverCellBounds) {
+        if (mDropZones.isEmpty()) return;
+        getLocationInWindow(mWindowLocation);
+        setCurrentDropZone(mDropZones.find(mWindowLocation[0] + hoverCellBounds.centerX(),
+                mWindowLocation[1] + hoverCellBounds.centerY()));
+    }
+
+    private void setCurrentDropZone(DropZone zone) {
+        if (zone == mCurrentDropZone) return;
+        DropZone oldZone = mCurrentDropZone;
+        mCurrentDropZone = zone;
+        if ((oldZone != null) && (oldZone.getOnDropZoneHoverListener() != null)) {
+            oldZone.getOnDropZoneHoverListener().onHoverExit(oldZone, mDragController.getItemId());
+        }
+        if ((zone != null) && (zone.getOnDropZoneHoverListener() != null)) {
+            zone.getOnDropZoneHoverListener().onHoverEnter(zone, mDragController.getItemId());
+        }
         if (mHoverOperation != null) {
-            int position = getPositionByPoint(mHoverCellCurrentBounds.centerX(), mHoverCellCurrentBounds.centerY());
-            mHoverOperation.hoverPosition(DynamicRecyclingView.this, mMobileItemId, position, mMobileItemPosition, mHoverCellCurrentBounds, mHoverCellOriginalBounds);
+            mHoverOperation.hoverZoneChanged(this, mDragController.getItemId(), mDragController.getMobileItemPosition(), oldZone, zone);
         }
     }
 
+    public SectionIndex getSectionIndex() {
+        return mSectionIndex;
+    }
+
+    /**
+     * Sets the section boundaries for a sectioned list. The HoverOperations keep it up to
+     * date as they move items, so it is only rebuilt when the data changes from elsewhere.
+     */
+    public void setSectionIndex(SectionIndex sectionIndex) {
+        this.mSectionIndex = sectionIndex;
+    }
+
+    /**
+     * Returns the position the current drag started from, before any moves during it,
+     * or INVALID_POSITION if no cell is being dragged.
+     */
+    public int getDragStartPosition() {
+        return mDragController.getDragStartPosition();
+    }
+
     public HoverOperation getHoverOperation() {
         return mHoverOperation;
     }
@@ -583,25 +968,57 @@ public class DynamicRecyclingView extends GridView {
 
 
     /**
-     * Handles scrolling of the hovercell.
+     * Queues the rows about to be scrolled in to be bound ahead when the main thread is idle.
+     * Only applies if the adapter is a BindAheadAdapter. The number of rows follows the
+     * scroll speed over the next few frames.
      */
-    private void handleMobileCellScroll() {
-        if (mHoverCellCurrentBounds == null) return;
-        int offset = computeVerticalScrollOffset();
-        int height = getHeight();
-        int extent = computeVerticalScrollExtent();
-        int range = computeVerticalScrollRange();
-        int hoverViewTop = mHoverCellCurrentBounds.top;
-        int hoverHeight = mHoverCellCurrentBounds.height();
-        if (hoverViewTop <= 0 && offset > 0) {
-            smoothScrollBy(-mSmoothScrollAmountAtEdge, 0);
-            mIsMobileScrolling = true;
-        } else if (hoverViewTop + hoverHeight >= height && (offset + extent) < range) {
-            smoothScrollBy(mSmoothScrollAmountAtEdge, 0);
-            mIsMobileScrolling = true;
+    private void schedulePrefetch(int direction) {
+        if (!(getAdapter() instanceof BindAheadAdapter)) return;
+        View first = getChildAt(0);
+        if (first == null || first.getHeight() <= 0) return;
+
+        int columns = Math.max(getNumColumns(), 1);
+        int rows = 1 + (mDragController.getAutoScrollAmount() * PREFETCH_FRAMES) / first.getHeight();
+        int count = rows * columns;
+        if (direction > 0) {
+            mPrefetchNext = getLastVisiblePosition() + 1;
+            mPrefetchEnd = Math.min(mPrefetchNext + count - 1, getCount() - 1);
+        } else {
+            mPrefetchNext = getFirstVisiblePosition() - 1;
+            mPrefetchEnd = Math.max(mPrefetchNext - count + 1, 0);
+        }
+        mPrefetchStep = direction;
+        ((BindAheadAdapter) getAdapter()).trimPrepared(getFirstVisiblePosition() - count, getLastVisiblePosition() + count);
+
+        if (!mPrefetchQueued) {
+            mPrefetchQueued = true;
+            Looper.myQueue().addIdleHandler(mPrefetchHandler);
         }
     }
 
+    /**
+     * Prepares one view per idle pass so a single pass never holds the thread for long.
+     */
+    private MessageQueue.IdleHandler mPrefetchHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            if (!(getAdapter() instanceof BindAheadAdapter) || !mDragController.isHoverMobile()) {
+                mPrefetchQueued = false;
+                return false;
+            }
+            BindAheadAdapter adapter = (BindAheadAdapter) getAdapter();
+            while ((mPrefetchStep != 0) && (mPrefetchStep * (mPrefetchEnd - mPrefetchNext) >= 0)) {
+                int position = mPrefetchNext;
+                mPrefetchNext += mPrefetchStep;
+                if (adapter.prepare(position, DynamicRecyclingView.this)) {
+                    return true;
+                }
+            }
+            mPrefetchQueued = false;
+            return false;
+        }
+    };
+
     private AbsListView.OnScrollListener mScrollListener = new AbsListView.OnScrollListener() {
 
         private int mPreviousFirstVisibleItem = -1;
@@ -621,21 +1038,114 @@ public class DynamicRecyclingView extends GridView {
             int currentLastVisibleItem = mCurrentFirstVisibleItem + mCurrentVisibleItemCount;
             int previousLastVisibleItem = mPreviousFirstVisibleItem + mPreviousVisibleItemCount;
             if ((mCurrentFirstVisibleItem != mPreviousFirstVisibleItem) || (currentLastVisibleItem != previousLastVisibleItem)) {
-                notifyPositionViewFrameChange(mCurrentFirstVisibleItem, currentLastVisibleItem, mPreviousFirstVisibleItem, previousLastVisibleItem);
+                mDragController.onVisibleRangeChanged(mCurrentFirstVisibleItem, currentLastVisibleItem);
             }
             mPreviousFirstVisibleItem = mCurrentFirstVisibleItem;
             mPreviousVisibleItemCount = mCurrentVisibleItemCount;
+            if (mAutoAnimateChanges && !mLayoutDiffPending) {
+                mLayoutDiff.record(DynamicRecyclingView.this);
+            }
         }
 
         @Override
         public void onScrollStateChanged(AbsListView view, int scrollState) {
             if ((scrollState == SCROLL_STATE_IDLE) && (mCurrentVisibleItemCount > 0)) {
-                if (mCellIsMobile && mIsMobileScrolling) {
-                    handleMobileCellScroll();
-                }
+                mDragController.onScrollIdle();
             }
         }
     };
 
-}
+    /**
+     * Hands the cancel of a gesture taken over by a drag to GridView's own handling, which
+     * onTouchEvent() here would route back to the DragController.
+     */
+    private class ViewDragHost extends AbsListViewDragHost {
+        ViewDragHost() {
+            super(DynamicRecyclingView.this);
+        }
+
+        @Override
+        public void dispatchContainerTouchEvent(MotionEvent event) {
+            DynamicRecyclingView.super.onTouchEvent(event);
+        }
+    }
+
+    /**
+     * Inflater without factories for preInflate(), resolving the framework widgets the way
+     * the platform inflater does.
+     */
+    private static class BasicInflater extends LayoutInflater {
+        private static final String[] sClassPrefixList = {"android.widget.", "android.webkit.", "android.app."};
+
+        BasicInflater(Context context) {
+            super(context);
+        }
+
+        @Override
+        public LayoutInflater cloneInContext(Context newContext) {
+            return new BasicInflater(newContext);
+        }
+
+        @Override
+        protected View onCreateView(String name, AttributeSet attrs) throws ClassNotFoundException {
+            for (String prefix : sClassPrefixList) {
+                try {
+                    View view = createView(name, prefix, attrs);
+                    if (view != null) return view;
+                } catch (ClassNotFoundException e) {
+                }
+            }
+            return super.onCreateView(name, attrs);
+        }
+    }
+
+    /**
+     * The compact state of an in-progress drag: the stable ID, the position the drag
+     * started from and the one the item has now, the hover cell's offset as a fraction
+     * of the view size, and whether the snapshot had been taken or the cell was only lifted.
+     */
+    static class SavedState extends BaseSavedState {
+        int mDragState = DragController.STATE_IDLE;
+        long mStableId = -1;
+        int mOriginalPosition = INVALID_POSITION;
+        int mCurrentPosition = INVALID_POSITION;
+        float mHoverX;
+        float mHoverY;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            mDragState = in.readInt();
+            mStableId = in.readLong();
+            mOriginalPosition = in.readInt();
+            mCurrentPosition = in.readInt();
+            mHoverX = in.readFloat();
+            mHoverY = in.readFloat();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(mDragState);
+            out.writeLong(mStableId);
+            out.writeInt(mOriginalPosition);
+            out.writeInt(mCurrentPosition);
+            out.writeFloat(mHoverX);
+            out.writeFloat(mHoverY);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
 
+}
\ No newline at end of file
@@ -0,0 +1,243 @@
+package com.example.android.viewdragginganimation;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A filtered view of a reorderable list, for reordering while a search filter is active.
+ * <p/>
+ * The list owns its data: the constructor copies the given items, and the full list in
+ * its current order is read back with getSourceList(). Hand this list to the adapter and
+ * the HoverOperations. Their positions are then filtered positions, and the source list
+ * never has to be refiltered after a move.
+ * <p/>
+ * One Fenwick tree counts the visible items over the slots and a second one the slots
+ * that are not deleted, so a filtered position maps to its position in the source list
+ * and back in O(log n). Set, swap and move only rearrange items among the slots of the
+ * visible items, and the hidden items keep their places, so the trees do not change. A
+ * delete leaves a tombstone and costs one update per tree. Tombstones are compacted away
+ * once they make up half the list. Inserts and filter changes rebuild the trees in O(n).
+ */
+public class FilteredList<T> extends AbstractList<T> {
+
+    public interface Filter<T> {
+        boolean accept(T item);
+    }
+
+    private static final int MIN_COMPACT = 64;
+
+    private final ArrayList<T> mItems;
+    private boolean[] mDeleted = new boolean[0];
+    private int mDeletedCount = 0;
+    private int[] mTree = new int[1];
+    private int[] mLiveTree = new int[1];
+    private int mVisibleCount = 0;
+    private Filter<T> mFilter;
+
+    public FilteredList(List<T> items, Filter<T> filter) {
+        this.mItems = new ArrayList<>(items);
+        this.mFilter = filter;
+        rebuild();
+    }
+
+    public Filter<T> getFilter() {
+        return mFilter;
+    }
+
+    /**
+     * Changes the filter, null shows everything. O(n).
+     */
+    public void setFilter(Filter<T> filter) {
+        this.mFilter = filter;
+        rebuild();
+    }
+
+    /**
+     * Returns the full list in its current order, including the hidden items.
+     */
+    public ArrayList<T> getSourceList() {
+        ArrayList<T> list = new ArrayList<>(mItems.size() - mDeletedCount);
+        for (int i = 0, s = mItems.size(); i < s; i++) {
+            if (!mDeleted[i]) list.add(mItems.get(i));
+        }
+        return list;
+    }
+
+    /**
+     * Maps a filtered position to its position in getSourceList(). O(log n).
+     */
+    public int getSourcePosition(int position) {
+        return prefix(mLiveTree, getSlot(position));
+    }
+
+    /**
+     * Maps a position in getSourceList() to its filtered position, or -1 if it is
+     * hidden. O(log n).
+     */
+    public int getFilteredPosition(int sourcePosition) {
+        if ((sourcePosition < 0) || (sourcePosition >= mItems.size() - mDeletedCount)) return -1;
+        int slot = descend(mLiveTree, sourcePosition + 1);
+        if (!isVisible(slot)) return -1;
+        return prefix(mTree, slot);
+    }
+
+    @Override
+    public int size() {
+        return mVisibleCount;
+    }
+
+    @Override
+    public T get(int position) {
+        return mItems.get(getSlot(position));
+    }
+
+    @Override
+    public T set(int position, T item) {
+        return mItems.set(getSlot(position), item);
+    }
+
+    /**
+     * Moves the item at filtered position from to filtered position to, shifting the
+     * visible items in between. Hidden items keep their source slots. O(k log n) for a
+     * move across k positions.
+     */
+    public void move(int from, int to) {
+        if (from == to) return;
+        int step = (from < to) ? 1 : -1;
+        int slot = getSlot(from);
+        T moving = mItems.get(slot);
+        for (int p = from; p != to; p += step) {
+            int nextSlot = getSlot(p + step);
+            mItems.set(slot, mItems.get(nextSlot));
+            slot = nextSlot;
+        }
+        mItems.set(slot, moving);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int position) {
+        int slot = getSlot(position);
+        T item = mItems.get(slot);
+        mItems.set(slot, null);
+        mDeleted[slot] = true;
+        mDeletedCount++;
+        update(mTree, slot, -1);
+        update(mLiveTree, slot, -1);
+        mVisibleCount--;
+        modCount++;
+        if ((mDeletedCount > MIN_COMPACT) && (mDeletedCount * 2 > mItems.size())) {
+            rebuild();
+        }
+        return item;
+    }
+
+    /**
+     * Inserts before the item at filtered position, or at the end of the source. An item
+     * the filter rejects goes into the source but stays hidden, like any other. O(n).
+     */
+    @Override
+    public void add(int position, T item) {
+        if ((position < 0) || (position > mVisibleCount)) {
+            throw new IndexOutOfBoundsException("Invalid position " + position + ", size is " + mVisibleCount);
+        }
+        int sourcePosition = (position < mVisibleCount) ? getSourcePosition(position) : mItems.size() - mDeletedCount;
+        compact();
+        mItems.add(sourcePosition, item);
+        mDeleted = new boolean[mItems.size()];
+        buildTree();
+        modCount++;
+    }
+
+    /**
+     * Returns the slot holding the item at filtered position, tombstones included.
+     */
+    private int getSlot(int position) {
+        if ((position < 0) || (position >= mVisibleCount)) {
+            throw new IndexOutOfBoundsException("Invalid position " + position + ", size is " + mVisibleCount);
+        }
+        return descend(mTree, position + 1);
+    }
+
+    private void rebuild() {
+        compact();
+        mDeleted = new boolean[mItems.size()];
+        buildTree();
+        modCount++;
+    }
+
+    /**
+     * O(n) Fenwick construction from the visibility and liveness of every slot.
+     */
+    private void buildTree() {
+        int n = mItems.size();
+        mTree = new int[n + 1];
+        mLiveTree = new int[n + 1];
+        mVisibleCount = 0;
+        for (int i = 1; i <= n; i++) {
+            if (!mDeleted[i - 1]) {
+                mLiveTree[i]++;
+                if ((mFilter == null) || mFilter.accept(mItems.get(i - 1))) {
+                    mTree[i]++;
+                    mVisibleCount++;
+                }
+            }
+            int parent = i + (i & -i);
+            if (parent <= n) {
+                mTree[parent] += mTree[i];
+                mLiveTree[parent] += mLiveTree[i];
+            }
+        }
+    }
+
+    private void compact() {
+        if (mDeletedCount == 0) return;
+        int write = 0;
+        for (int read = 0, s = mItems.size(); read < s; read++) {
+            if (!mDeleted[read]) mItems.set(write++, mItems.get(read));
+        }
+        for (int i = mItems.size() - 1; i >= write; i--) {
+            mItems.remove(i);
+        }
+        mDeletedCount = 0;
+    }
+
+    private boolean isVisible(int slot) {
+        if ((slot < 0) || (slot >= mItems.size())) return false;
+        return prefix(mTree, slot + 1) - prefix(mTree, slot) == 1;
+    }
+
+    /**
+     * Fenwick descent for the slot holding the rank-th counted item, rank from 1.
+     */
+    private static int descend(int[] tree, int rank) {
+        int remaining = rank;
+        int index = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step != 0; step >>= 1) {
+            int next = index + step;
+            if ((next < tree.length) && (tree[next] < remaining)) {
+                index = next;
+                remaining -= tree[next];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Counts the items in the slots before slot.
+     */
+    private static int prefix(int[] tree, int slot) {
+        int count = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    private static void update(int[] tree, int slot, int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+}
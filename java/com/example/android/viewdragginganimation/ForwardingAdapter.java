@@ -0,0 +1,96 @@
+package com.example.android.viewdragginganimation;
+
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.ListAdapter;
+import android.widget.WrapperListAdapter;
+
+/**
+ * Base for adapter wrappers. Forwards everything to the wrapped adapter and passes its
+ * data set notifications on. Being a BaseAdapter, the HoverOperations can notify it directly.
+ */
+public abstract class ForwardingAdapter extends BaseAdapter implements WrapperListAdapter {
+
+    protected final ListAdapter mAdapter;
+
+    private final DataSetObserver mObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            ForwardingAdapter.super.notifyDataSetChanged();
+        }
+
+        @Override
+        public void onInvalidated() {
+            onWrappedInvalidated();
+            ForwardingAdapter.super.notifyDataSetInvalidated();
+        }
+    };
+
+    public ForwardingAdapter(ListAdapter adapter) {
+        this.mAdapter = adapter;
+        mAdapter.registerDataSetObserver(mObserver);
+    }
+
+    /**
+     * Called when the wrapped adapter invalidates its data, to drop anything cached.
+     */
+    protected void onWrappedInvalidated() {
+    }
+
+    @Override
+    public ListAdapter getWrappedAdapter() {
+        return mAdapter;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        return mAdapter.getView(position, convertView, parent);
+    }
+
+    @Override
+    public int getCount() {
+        return mAdapter.getCount();
+    }
+
+    @Override
+    public Object getItem(int position) {
+        return mAdapter.getItem(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mAdapter.getItemId(position);
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return mAdapter.hasStableIds();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return mAdapter.getItemViewType(position);
+    }
+
+    @Override
+    public int getViewTypeCount() {
+        return mAdapter.getViewTypeCount();
+    }
+
+    @Override
+    public boolean areAllItemsEnabled() {
+        return mAdapter.areAllItemsEnabled();
+    }
+
+    @Override
+    public boolean isEnabled(int position) {
+        return mAdapter.isEnabled(position);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return mAdapter.isEmpty();
+    }
+}
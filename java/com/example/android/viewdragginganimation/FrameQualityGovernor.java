@@ -0,0 +1,73 @@
+package com.example.android.viewdragginganimation;
+
+/**
+ * Steps drag quality down while the measured work per frame runs over budget and back up
+ * once it is comfortably within it.
+ * <p/>
+ * The samples are the time a frame spent in layout and drawing, not the interval between
+ * frames, which vsync holds at the refresh period however light the frame is. They are
+ * smoothed with an exponential moving average. A level only changes after a number of
+ * frames at the previous level, so a single slow frame does not flip it and the levels do
+ * not oscillate.
+ */
+class FrameQualityGovernor {
+
+    static final int QUALITY_FULL = 0;
+    static final int QUALITY_SHORT_ANIMATIONS = 1;
+    static final int QUALITY_NEAR_ANIMATIONS = 2;
+    static final int QUALITY_LOW_RES_HOVER = 3;
+    static final int QUALITY_NO_ANIMATIONS = 4;
+
+    private static final int FRAMES_BEFORE_DOWNGRADE = 8;
+    private static final int FRAMES_BEFORE_UPGRADE = 30;
+    private static final float RECOVERY_FRACTION = 0.75f;
+
+    private long mBudgetNanos = 16666667L;
+    private float mAverageNanos = 0;
+    private int mLevel = QUALITY_FULL;
+    private int mFramesAtLevel = 0;
+
+    void setBudgetNanos(long budgetNanos) {
+        this.mBudgetNanos = budgetNanos;
+    }
+
+    int getLevel() {
+        return mLevel;
+    }
+
+    /**
+     * Starts a new measurement one level above where the last one ended, so a slow
+     * moment in one drag fades out over the following drags instead of sticking.
+     */
+    void restart() {
+        mAverageNanos = 0;
+        mFramesAtLevel = 0;
+        if (mLevel > QUALITY_FULL) mLevel--;
+    }
+
+    void reset() {
+        restart();
+        mLevel = QUALITY_FULL;
+    }
+
+    /**
+     * Adds the work time of one frame. Returns true if the level changed.
+     */
+    boolean onFrame(long frameNanos) {
+        if (frameNanos <= 0) return false;
+        mAverageNanos = (mAverageNanos == 0) ? frameNanos : (mAverageNanos * 0.8f) + (frameNanos * 0.2f);
+        mFramesAtLevel++;
+
+        if ((mAverageNanos > mBudgetNanos) && (mFramesAtLevel >= FRAMES_BEFORE_DOWNGRADE) && (mLevel < QUALITY_NO_ANIMATIONS)) {
+            mLevel++;
+            mFramesAtLevel = 0;
+            return true;
+        }
+        if ((mAverageNanos < mBudgetNanos * RECOVERY_FRACTION) && (mFramesAtLevel >= FRAMES_BEFORE_UPGRADE) && (mLevel > QUALITY_FULL)) {
+            mLevel--;
+            mFramesAtLevel = 0;
+            return true;
+        }
+        return false;
+    }
+}
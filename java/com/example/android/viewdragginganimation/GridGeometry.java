@@ -0,0 +1,92 @@
+package com.example.android.viewdragginganimation;
+
+import android.graphics.Rect;
+import android.util.SparseIntArray;
+import android.view.View;
+
+/**
+ * Layout rectangles for any adapter position, including positions that are not on screen.
+ * <p/>
+ * measure() reads the column count, column step and vertical spacing from the current
+ * children and remembers each visible row's height. Rows that were never measured use
+ * the average measured height. Positions are placed relative to the first visible row,
+ * so a rectangle is only as accurate as the row heights between it and the viewport.
+ */
+class GridGeometry {
+
+    private final SparseIntArray mRowHeights = new SparseIntArray();
+    private int mColumns = 1;
+    private int mColumnStep = 0;
+    private int mVerticalSpacing = 0;
+    private int mCellWidth = 0;
+    private int mAverageRowHeight = 0;
+    private int mAnchorRow = 0;
+    private int mAnchorTop = 0;
+    private int mAnchorLeft = 0;
+    private boolean mValid = false;
+
+    void measure(DynamicRecyclingView view) {
+        int childCount = view.getChildCount();
+        if (childCount == 0) {
+            mValid = false;
+            return;
+        }
+        mColumns = Math.max(view.getNumColumns(), 1);
+        View first = view.getChildAt(0);
+        mCellWidth = first.getWidth();
+        mColumnStep = ((mColumns > 1) && (childCount > 1)) ? view.getChildAt(1).getLeft() - first.getLeft() : mCellWidth;
+        mVerticalSpacing = (childCount > mColumns) ? view.getChildAt(mColumns).getTop() - first.getBottom() : 0;
+        if (mVerticalSpacing < 0) mVerticalSpacing = 0;
+        mAnchorRow = view.getFirstVisiblePosition() / mColumns;
+        mAnchorTop = first.getTop();
+        mAnchorLeft = first.getLeft();
+
+        for (int i = 0; i < childCount; i += mColumns) {
+            int height = 0;
+            for (int c = i, e = Math.min(i + mColumns, childCount); c < e; c++) {
+                height = Math.max(height, view.getChildAt(c).getHeight());
+            }
+            mRowHeights.put(mAnchorRow + (i / mColumns), height);
+        }
+        long total = 0;
+        for (int i = 0, s = mRowHeights.size(); i < s; i++) {
+            total += mRowHeights.valueAt(i);
+        }
+        mAverageRowHeight = (int) (total / mRowHeights.size());
+        mValid = true;
+    }
+
+    /**
+     * Forgets the measured row heights, for when the data or cell layout changed.
+     */
+    void clear() {
+        mRowHeights.clear();
+        mValid = false;
+    }
+
+    /**
+     * Sets out to where position is laid out. Returns false if nothing was measured yet.
+     */
+    boolean getPositionRect(int position, Rect out) {
+        if (!mValid || position < 0) return false;
+        int row = position / mColumns;
+        int column = position % mColumns;
+        int top = mAnchorTop;
+        if (row >= mAnchorRow) {
+            for (int r = mAnchorRow; r < row; r++) {
+                top += getRowHeight(r) + mVerticalSpacing;
+            }
+        } else {
+            for (int r = row; r < mAnchorRow; r++) {
+                top -= getRowHeight(r) + mVerticalSpacing;
+            }
+        }
+        int left = mAnchorLeft + (column * mColumnStep);
+        out.set(left, top, left + mCellWidth, top + getRowHeight(row));
+        return true;
+    }
+
+    private int getRowHeight(int row) {
+        return mRowHeights.get(row, mAverageRowHeight);
+    }
+}
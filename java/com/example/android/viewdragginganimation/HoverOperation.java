@@ -9,4 +9,8 @@ public interface HoverOperation {
    abstract void hoverPosition(DynamicRecyclingView dynamicListView, long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds);
 
     abstract void viewSwitched(DynamicRecyclingView dynamicListView, long stableID, int position, View oldView, View newView);
+
+    abstract void hoverZoneChanged(DynamicRecyclingView dynamicListView, long stableID, int originalPosition, DropZone oldZone, DropZone newZone);
+
+    abstract void zoneDropped(DynamicRecyclingView dynamicListView, long stableID, int originalPosition, DropZone zone);
 }
\ No newline at end of file
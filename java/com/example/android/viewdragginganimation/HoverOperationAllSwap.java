@@ -1,15 +1,19 @@
 package com.example.android.viewdragginganimation;
 
 import android.graphics.Rect;
-import android.widget.BaseAdapter;
 
-import java.util.ArrayList;
+import java.util.List;
 
 
 public class HoverOperationAllSwap extends AbstractHoverOperation {
-    ArrayList backingList;
+    List backingList;
 
-    public HoverOperationAllSwap(ArrayList backingList) {
+    private long mLastStableID = DynamicRecyclingView.INVALID_ROW_ID;
+    private int mLastX;
+    private int mLastY;
+    private int[] mPath = new int[8];
+
+    public HoverOperationAllSwap(List backingList) {
         this.backingList = backingList;
     }
 
@@ -18,12 +22,83 @@ public class HoverOperationAllSwap extends AbstractHoverOperation {
         if (currentPosition == DynamicRecyclingView.INVALID_POSITION) {
             return;
         }
-        if (currentPosition != originalPosition) {
-            dynamicListView.animatePositionMove(originalPosition, currentPosition);
-            swapElements(backingList, currentPosition, originalPosition);
-            ((BaseAdapter) dynamicListView.getAdapter()).notifyDataSetChanged();
+        int count = (currentPosition != originalPosition) ? findCrossedCells(dynamicListView, stableID, currentPosition, originalPosition, hoverCellBounds, viewBounds) : 0;
+        mLastStableID = stableID;
+        mLastX = hoverCellBounds.centerX();
+        mLastY = hoverCellBounds.centerY();
+        if (count < 2) {
+            return;
+        }
+
+        //A fast drag can cross several cells in one event. Every crossed cell gives way
+        //one step along the path, as if each had been swapped in turn, in one mutation.
+        int[] moves = new int[(count - 1) * 2];
+        for (int i = 1; i < count; i++) {
+            moves[(i - 1) * 2] = mPath[i - 1];
+            moves[(i - 1) * 2 + 1] = mPath[i];
         }
+        dynamicListView.animatePositionMove(moves);
+        rotateElements(backingList, mPath, count);
+
+        DragHost host = dynamicListView.getDragController().getHost();
+        host.beginChanges();
+        notifyRotated(host, mPath, count);
+        host.endChanges();
     }
 
+    /**
+     * Fills mPath with the cells the hover center crossed since the last event, in order,
+     * from originalPosition to currentPosition. Headers and cells the SectionIndex does
+     * not allow are left out. Returns the number of cells.
+     */
+    private int findCrossedCells(DynamicRecyclingView dynamicListView, long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds) {
+        int count = 0;
+        mPath[count++] = originalPosition;
+
+        //The item sits where the hover was last event, unless the list scrolled under it.
+        int fromX;
+        int fromY;
+        if ((stableID == mLastStableID) && (dynamicListView.getPositionByPoint(mLastX, mLastY) == originalPosition)) {
+            fromX = mLastX;
+            fromY = mLastY;
+        } else if (viewBounds != null) {
+            fromX = viewBounds.centerX();
+            fromY = viewBounds.centerY();
+        } else {
+            mPath[count++] = currentPosition;
+            return count;
+        }
+        int toX = hoverCellBounds.centerX();
+        int toY = hoverCellBounds.centerY();
+
+        //Sample at half the smaller cell side, so no cell on the way is stepped over.
+        int step = Math.max(Math.min(hoverCellBounds.width(), hoverCellBounds.height()) / 2, 1);
+        double distance = Math.hypot(toX - fromX, toY - fromY);
+        int samples = (int) Math.ceil(distance / step);
+        SectionIndex sectionIndex = dynamicListView.getSectionIndex();
+        for (int s = 1; s <= samples; s++) {
+            int position = dynamicListView.getPositionByPoint(
+                    fromX + (int) ((toX - fromX) * (long) s / samples),
+                    fromY + (int) ((toY - fromY) * (long) s / samples));
+            if ((position == DynamicRecyclingView.INVALID_POSITION) || (position == currentPosition)) continue;
+            if (contains(mPath, count, position)) continue;
+            if ((sectionIndex != null) && ((sectionIndex.isHeader(position))
+                    || (sectionIndex.constrainPosition(originalPosition, position) != position))) continue;
+            if (mPath.length == count + 1) {
+                int[] path = new int[mPath.length * 2];
+                System.arraycopy(mPath, 0, path, 0, count);
+                mPath = path;
+            }
+            mPath[count++] = position;
+        }
+        mPath[count++] = currentPosition;
+        return count;
+    }
 
+    private static boolean contains(int[] array, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (array[i] == value) return true;
+        }
+        return false;
+    }
 }
@@ -1,14 +1,13 @@
 package com.example.android.viewdragginganimation;
 
 import android.graphics.Rect;
-import android.widget.BaseAdapter;
 
-import java.util.ArrayList;
+import java.util.List;
 
 public class HoverOperationInsert extends AbstractHoverOperation {
-    ArrayList backingList;
+    List backingList;
 
-    public HoverOperationInsert(ArrayList backingList) {
+    public HoverOperationInsert(List backingList) {
         this.backingList = backingList;
     }
 
@@ -26,7 +25,10 @@ public class HoverOperationInsert extends AbstractHoverOperation {
             }
 
             moveElement(backingList, originalPosition, currentPosition);
-            ((BaseAdapter) dynamicListView.getAdapter()).notifyDataSetChanged();
+            if (dynamicListView.getSectionIndex() != null) {
+                dynamicListView.getSectionIndex().itemMoved(originalPosition, currentPosition);
+            }
+            dynamicListView.getDragController().getHost().notifyItemMoved(originalPosition, currentPosition);
         }
     }
 }
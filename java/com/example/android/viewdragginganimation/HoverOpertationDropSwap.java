@@ -1,15 +1,14 @@
 package com.example.android.viewdragginganimation;
 
 import android.graphics.Rect;
-import android.widget.BaseAdapter;
 
-import java.util.ArrayList;
+import java.util.List;
 
 
 public class HoverOpertationDropSwap extends AbstractHoverOperation {
-    ArrayList backingList;
+    List backingList;
 
-    public HoverOpertationDropSwap(ArrayList backingList) {
+    public HoverOpertationDropSwap(List backingList) {
         this.backingList = backingList;
     }
 
@@ -17,14 +16,20 @@ public class HoverOpertationDropSwap extends AbstractHoverOperation {
     public void hoverEnded(DynamicRecyclingView dynamicListView, long stableID, int currentPosition, int originalPosition, Rect hoverCellBounds, Rect viewBounds) {
         if (currentPosition == DynamicRecyclingView.INVALID_POSITION) {
             deleteElement(backingList,originalPosition);
+            if (dynamicListView.getSectionIndex() != null) {
+                dynamicListView.getSectionIndex().itemRemoved(originalPosition);
+            }
             dynamicListView.animateDelete(originalPosition);
-            ((BaseAdapter) dynamicListView.getAdapter()).notifyDataSetChanged();
+            dynamicListView.getDragController().getHost().notifyItemRemoved(originalPosition);
             return;
         }
         if (currentPosition != originalPosition) {
             dynamicListView.animatePositionMove(originalPosition, currentPosition);
             swapElements(backingList, originalPosition, currentPosition);
-            ((BaseAdapter) dynamicListView.getAdapter()).notifyDataSetChanged();
+            DragHost host = dynamicListView.getDragController().getHost();
+            host.beginChanges();
+            notifySwapped(host, originalPosition, currentPosition);
+            host.endChanges();
         }
     }
 
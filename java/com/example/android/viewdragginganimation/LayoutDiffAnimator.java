@@ -0,0 +1,199 @@
+package com.example.android.viewdragginganimation;
+
+import android.view.View;
+import android.widget.Adapter;
+
+/**
+ * Records where each visible stable ID is drawn and, after the next layout, translates
+ * the children back to where their items were so animateToLocations() can slide them home.
+ * <p/>
+ * Only items whose location changed are animated. A longest increasing subsequence over
+ * the old order of the surviving items finds the largest set that kept its relative order.
+ * Items outside it are the fewest that can have moved, the rest only shifted to make room
+ * and slide along in order. The moved items are drawn last, so they pass over the shifting
+ * ones. That drawing order holds until the next apply() or a change in child count, and
+ * there is none when nothing moved.
+ * <p/>
+ * All arrays are reused between passes. The visible child count is small, so ids are
+ * matched by a linear scan rather than a map.
+ */
+class LayoutDiffAnimator {
+
+    private long[] mIds = new long[0];
+    private int[] mLeft = new int[0];
+    private int[] mTop = new int[0];
+    private int mCount = 0;
+
+    private int[] mOldIndex = new int[0];
+    private int[] mSequence = new int[0];
+    private int[] mSequenceChild = new int[0];
+    private int[] mTails = new int[0];
+    private int[] mPrev = new int[0];
+    private boolean[] mInLis = new boolean[0];
+    private boolean[] mMoved = new boolean[0];
+    private int[] mDrawingOrder = new int[0];
+    private int mDrawingOrderCount = -1;
+
+    /**
+     * Records the drawn location of every visible item by stable ID.
+     */
+    void record(DynamicRecyclingView view) {
+        Adapter adapter = view.getAdapter();
+        int count = view.getChildCount();
+        if (adapter == null) count = 0;
+        ensureRecordCapacity(count);
+        int firstVisiblePosition = view.getFirstVisiblePosition();
+        for (int i = 0; i < count; i++) {
+            View v = view.getChildAt(i);
+            mIds[i] = adapter.getItemId(firstVisiblePosition + i);
+            mLeft[i] = v.getLeft() + (int) v.getTranslationX();
+            mTop[i] = v.getTop() + (int) v.getTranslationY();
+        }
+        mCount = count;
+    }
+
+    /**
+     * Refreshes the recorded locations from the children without touching the adapter,
+     * which may already hold the new data. Valid while no layout happened since record().
+     */
+    void recordLocations(DynamicRecyclingView view) {
+        int count = Math.min(mCount, view.getChildCount());
+        for (int i = 0; i < count; i++) {
+            View v = view.getChildAt(i);
+            mLeft[i] = v.getLeft() + (int) v.getTranslationX();
+            mTop[i] = v.getTop() + (int) v.getTranslationY();
+        }
+    }
+
+    /**
+     * Translates children whose item moved since record() back to their recorded location.
+     * The item with skipId is never translated. Returns true if anything needs animating.
+     */
+    boolean apply(DynamicRecyclingView view, long skipId) {
+        Adapter adapter = view.getAdapter();
+        if (adapter == null || mCount == 0) return false;
+        int count = view.getChildCount();
+        ensureDiffCapacity(count);
+        int firstVisiblePosition = view.getFirstVisiblePosition();
+
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            long id = adapter.getItemId(firstVisiblePosition + i);
+            mOldIndex[i] = -1;
+            if (id == skipId) continue;
+            for (int j = 0; j < mCount; j++) {
+                if (mIds[j] == id) {
+                    mOldIndex[i] = j;
+                    mSequence[n] = j;
+                    mSequenceChild[n] = i;
+                    n++;
+                    break;
+                }
+            }
+        }
+        longestIncreasingSubsequence(mSequence, n, mTails, mPrev, mInLis);
+
+        boolean animate = false;
+        for (int k = 0; k < n; k++) {
+            View v = view.getChildAt(mSequenceChild[k]);
+            int dx = mLeft[mSequence[k]] - v.getLeft();
+            int dy = mTop[mSequence[k]] - v.getTop();
+            v.setTranslationX(dx);
+            v.setTranslationY(dy);
+            animate |= (dx != 0) || (dy != 0);
+        }
+        //Recycled views showing new items must not keep a stale translation.
+        for (int i = 0; i < count; i++) {
+            if (mOldIndex[i] == -1) {
+                View v = view.getChildAt(i);
+                v.setTranslationX(0);
+                v.setTranslationY(0);
+            }
+        }
+
+        //Shifted and new children first, then the moved ones on top.
+        int order = 0;
+        for (int i = 0; i < count; i++) {
+            mMoved[i] = false;
+        }
+        boolean anyMoved = false;
+        for (int k = 0; k < n; k++) {
+            mMoved[mSequenceChild[k]] = !mInLis[k];
+            anyMoved |= !mInLis[k];
+        }
+        if (!anyMoved) {
+            mDrawingOrderCount = -1;
+            return animate;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!mMoved[i]) mDrawingOrder[order++] = i;
+        }
+        for (int i = 0; i < count; i++) {
+            if (mMoved[i]) mDrawingOrder[order++] = i;
+        }
+        mDrawingOrderCount = count;
+        return animate;
+    }
+
+    /**
+     * True if the last apply() found moved items to draw on top of the shifted ones.
+     */
+    boolean hasDrawingOrder() {
+        return mDrawingOrderCount != -1;
+    }
+
+    /**
+     * Drawing order for ViewGroup.getChildDrawingOrder(), valid until the next apply()
+     * or until the child count changes.
+     */
+    int getChildDrawingOrder(int childCount, int i) {
+        if (childCount != mDrawingOrderCount) return i;
+        return mDrawingOrder[i];
+    }
+
+    /**
+     * Marks in inLis the members of one longest strictly increasing subsequence of seq[0..n).
+     * O(n log n) patience sorting. Returns its length.
+     */
+    static int longestIncreasingSubsequence(int[] seq, int n, int[] tails, int[] prev, boolean[] inLis) {
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (seq[tails[mid]] < seq[i]) lo = mid + 1;
+                else hi = mid;
+            }
+            prev[i] = (lo > 0) ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == length) length++;
+            inLis[i] = false;
+        }
+        for (int i = (length > 0) ? tails[length - 1] : -1; i != -1; i = prev[i]) {
+            inLis[i] = true;
+        }
+        return length;
+    }
+
+    private void ensureRecordCapacity(int count) {
+        if (mIds.length < count) {
+            mIds = new long[count];
+            mLeft = new int[count];
+            mTop = new int[count];
+        }
+    }
+
+    private void ensureDiffCapacity(int count) {
+        if (mOldIndex.length < count) {
+            mOldIndex = new int[count];
+            mSequence = new int[count];
+            mSequenceChild = new int[count];
+            mTails = new int[count];
+            mPrev = new int[count];
+            mInLis = new boolean[count];
+            mMoved = new boolean[count];
+            mDrawingOrder = new int[count];
+        }
+    }
+}
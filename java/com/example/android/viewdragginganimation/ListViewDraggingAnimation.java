@@ -18,8 +18,6 @@ package com.example.android.viewdragginganimation;
 
 import android.app.Activity;
 import android.os.Bundle;
-import android.view.View;
-import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import android.widget.ListView;
 import android.widget.RadioGroup;
@@ -65,19 +63,6 @@ public class ListViewDraggingAnimation extends Activity {
                 }
             }
 
-            @Override
-            public View getView(final int position, View convertView, ViewGroup parent) {
-                View view = super.getView(position, convertView, parent);
-                //this is klugy for the example, you can call startMoveById from any code.
-                view.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View v) {
-                        listView.startMoveById(getItemId(position));
-                    }
-                });
-                return view;
-            }
-
             @Override
             public boolean hasStableIds() {
                 return true;
@@ -105,7 +90,10 @@ public class ListViewDraggingAnimation extends Activity {
             }
         });
 
-        listView.setAdapter(adapter);
+        listView.setAdapter(new BindAheadAdapter(new BindSkippingAdapter(adapter)));
+        listView.preInflate(R.layout.text_view, getResources().getDimensionPixelSize(R.dimen.list_item_height));
         listView.setChoiceMode(ListView.CHOICE_MODE_SINGLE);
+        //you can also call startMoveById from any code.
+        listView.setDragStartMode(DynamicRecyclingView.DRAG_START_LONG_PRESS | DynamicRecyclingView.DRAG_START_HOLD_AND_MOVE);
     }
 }
@@ -0,0 +1,144 @@
+package com.example.android.viewdragginganimation;
+
+import java.util.Arrays;
+
+/**
+ * Section boundaries for a list of headers plus items, where each section starts with its
+ * header. Lookups binary search a sorted array of section starts. Moves, inserts and
+ * deletes shift only the starts that lie between the affected positions, so the data
+ * never has to be rescanned.
+ * <p/>
+ * Set on a DynamicRecyclingView, hover positions are constrained before they reach the
+ * HoverOperation. Headers cannot be dragged or targeted, and with CONSTRAIN_WITHIN_SECTION
+ * an item cannot leave its section.
+ */
+public class SectionIndex {
+
+    public static final int CONSTRAIN_NONE = 0;
+    public static final int CONSTRAIN_WITHIN_SECTION = 1;
+
+    private int[] mStarts;
+    private int mSectionCount;
+    private int mItemCount;
+    private int mConstraint = CONSTRAIN_NONE;
+
+    /**
+     * @param sectionStarts sorted positions of the section headers.
+     * @param itemCount     total count of headers and items.
+     */
+    public SectionIndex(int[] sectionStarts, int itemCount) {
+        this.mStarts = Arrays.copyOf(sectionStarts, sectionStarts.length);
+        this.mSectionCount = sectionStarts.length;
+        this.mItemCount = itemCount;
+    }
+
+    public int getConstraint() {
+        return mConstraint;
+    }
+
+    public void setConstraint(int constraint) {
+        this.mConstraint = constraint;
+    }
+
+    public int getSectionCount() {
+        return mSectionCount;
+    }
+
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    /**
+     * Returns the section containing position, or -1 if it is before the first header.
+     */
+    public int getSectionForPosition(int position) {
+        int lo = 0;
+        int hi = mSectionCount - 1;
+        int section = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (mStarts[mid] <= position) {
+                section = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return section;
+    }
+
+    public int getSectionStart(int section) {
+        return mStarts[section];
+    }
+
+    /**
+     * Returns the last position in the section.
+     */
+    public int getSectionEnd(int section) {
+        if (section + 1 < mSectionCount) return mStarts[section + 1] - 1;
+        return mItemCount - 1;
+    }
+
+    public boolean isHeader(int position) {
+        int section = getSectionForPosition(position);
+        return (section != -1) && (mStarts[section] == position);
+    }
+
+    /**
+     * Returns where an item from originalPosition hovering over targetPosition may go.
+     * A header target maps back to originalPosition, and with CONSTRAIN_WITHIN_SECTION the
+     * target is clamped into the original section. INVALID_POSITION passes through.
+     */
+    public int constrainPosition(int originalPosition, int targetPosition) {
+        if (targetPosition == DynamicRecyclingView.INVALID_POSITION) return targetPosition;
+        if (mConstraint == CONSTRAIN_WITHIN_SECTION) {
+            int section = getSectionForPosition(originalPosition);
+            if (section != -1) {
+                int start = mStarts[section] + 1;
+                int end = getSectionEnd(section);
+                if (targetPosition < start) targetPosition = start;
+                if (targetPosition > end) targetPosition = end;
+            }
+        }
+        if (isHeader(targetPosition)) return originalPosition;
+        return targetPosition;
+    }
+
+    /**
+     * Updates the boundaries after the item at fromIndex was removed and added at toIndex.
+     */
+    public void itemMoved(int fromIndex, int toIndex) {
+        if (fromIndex < toIndex) {
+            //headers in (from, to] move up by one.
+            for (int i = firstStartAbove(fromIndex); (i < mSectionCount) && (mStarts[i] <= toIndex); i++) {
+                mStarts[i]--;
+            }
+        } else if (fromIndex > toIndex) {
+            //headers in [to, from) move down by one.
+            for (int i = firstStartAbove(toIndex - 1); (i < mSectionCount) && (mStarts[i] < fromIndex); i++) {
+                mStarts[i]++;
+            }
+        }
+    }
+
+    public void itemRemoved(int index) {
+        for (int i = firstStartAbove(index); i < mSectionCount; i++) {
+            mStarts[i]--;
+        }
+        mItemCount--;
+    }
+
+    public void itemInserted(int index) {
+        for (int i = firstStartAbove(index - 1); i < mSectionCount; i++) {
+            mStarts[i]++;
+        }
+        mItemCount++;
+    }
+
+    /**
+     * Index of the first section start greater than position.
+     */
+    private int firstStartAbove(int position) {
+        return getSectionForPosition(position) + 1;
+    }
+}
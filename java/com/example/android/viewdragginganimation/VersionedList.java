@@ -0,0 +1,263 @@
+package com.example.android.viewdragginganimation;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Backing list that background producers can replace while a drag is in progress.
+ * <p/>
+ * Producers publish whole new orderings from any thread. Each one is kept as an immutable
+ * version and is not copied on publish. The UI thread owns the working list, which the
+ * adapter and the HoverOperations use. While a drag is in progress the working list is
+ * pinned, so the drag keeps seeing one consistent version. When the drag ends, the user's
+ * changes are rebased by stable ID onto the latest version.
+ * <p/>
+ * The rebase keeps every item the latest version has added where it put it. It drops
+ * items the user or the producer deleted, and puts the surviving items into the slots
+ * they share in the order the user left them. If the working list still holds exactly the
+ * applied version, the latest version is taken as is. The rebase hashes the ids into
+ * primitive sets and writes the result straight into the working list.
+ */
+public class VersionedList<T> {
+
+    public interface IdFunction<T> {
+        long getId(T item);
+    }
+
+    public interface OnVersionAppliedListener {
+        void onVersionApplied(VersionedList<?> list);
+    }
+
+    private static class Version<T> {
+        final int number;
+        final List<T> items;
+
+        Version(int number, List<T> items) {
+            this.number = number;
+            this.items = items;
+        }
+    }
+
+    private final IdFunction<T> mIdFunction;
+    private final ArrayList<T> mWorkingList = new ArrayList<>();
+    private final AtomicReference<Version<T>> mLatest;
+    private final AtomicBoolean mApplyPosted = new AtomicBoolean(false);
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private Version<T> mApplied;
+    private boolean mPinned = false;
+    private OnVersionAppliedListener mListener;
+
+    public VersionedList(IdFunction<T> idFunction, List<T> initial) {
+        this.mIdFunction = idFunction;
+        mApplied = new Version<>(0, Collections.unmodifiableList(initial));
+        mLatest = new AtomicReference<>(mApplied);
+        mWorkingList.addAll(initial);
+    }
+
+    /**
+     * The list to give to the adapter and the HoverOperations. UI thread only.
+     */
+    public ArrayList<T> getWorkingList() {
+        return mWorkingList;
+    }
+
+    public int getAppliedVersion() {
+        return mApplied.number;
+    }
+
+    public int getLatestVersion() {
+        return mLatest.get().number;
+    }
+
+    public void setOnVersionAppliedListener(OnVersionAppliedListener listener) {
+        this.mListener = listener;
+    }
+
+    /**
+     * Publishes a new ordering. Safe from any thread. The list is kept, not copied, so
+     * the caller must not change it afterwards. Bursts of publishes apply once.
+     */
+    public void publish(List<T> items) {
+        Version<T> previous;
+        Version<T> next;
+        do {
+            previous = mLatest.get();
+            next = new Version<>(previous.number + 1, Collections.unmodifiableList(items));
+        } while (!mLatest.compareAndSet(previous, next));
+
+        if (mApplyPosted.compareAndSet(false, true)) {
+            mHandler.post(mApplyRunnable);
+        }
+    }
+
+    /**
+     * Holds the working list at its current version. Called when a drag starts.
+     */
+    public void pin() {
+        mPinned = true;
+    }
+
+    /**
+     * Releases the pin and rebases the working list onto the latest version if one
+     * arrived during the drag. Called when a drag ends.
+     */
+    public void unpin() {
+        if (!mPinned) return;
+        mPinned = false;
+        applyLatest();
+    }
+
+    public boolean isPinned() {
+        return mPinned;
+    }
+
+    /**
+     * True if a published version has not been applied to the working list yet.
+     */
+    public boolean hasPendingVersion() {
+        return mLatest.get() != mApplied;
+    }
+
+    private final Runnable mApplyRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mApplyPosted.set(false);
+            if (!mPinned) {
+                applyLatest();
+            }
+        }
+    };
+
+    private void applyLatest() {
+        Version<T> latest = mLatest.get();
+        if (latest == mApplied) return;
+
+        if (isWorkingListUnchanged()) {
+            mWorkingList.clear();
+            mWorkingList.addAll(latest.items);
+        } else {
+            rebase(mApplied.items, latest.items);
+        }
+        mApplied = latest;
+        if (mListener != null) {
+            mListener.onVersionApplied(this);
+        }
+    }
+
+    /**
+     * True if nobody touched the working list since mApplied, compared by reference.
+     */
+    private boolean isWorkingListUnchanged() {
+        List<T> applied = mApplied.items;
+        if (applied.size() != mWorkingList.size()) return false;
+        for (int i = 0, s = applied.size(); i < s; i++) {
+            if (applied.get(i) != mWorkingList.get(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Rebases the working list, the user's edits of base, onto latest in place.
+     */
+    private void rebase(List<T> base, List<T> latest) {
+        ArrayList<T> working = mWorkingList;
+        LongSet baseIds = new LongSet(base.size());
+        for (int i = 0, s = base.size(); i < s; i++) {
+            baseIds.add(mIdFunction.getId(base.get(i)));
+        }
+        LongSet workingIds = new LongSet(working.size());
+        for (int i = 0, s = working.size(); i < s; i++) {
+            workingIds.add(mIdFunction.getId(working.get(i)));
+        }
+        LongSet latestIds = new LongSet(latest.size());
+        for (int i = 0, s = latest.size(); i < s; i++) {
+            latestIds.add(mIdFunction.getId(latest.get(i)));
+        }
+
+        //The user's order: survivors of the latest version plus items the user added.
+        ArrayList<T> fill = new ArrayList<>(working.size());
+        for (int i = 0, s = working.size(); i < s; i++) {
+            long id = mIdFunction.getId(working.get(i));
+            if (latestIds.contains(id) || !baseIds.contains(id)) {
+                fill.add(working.get(i));
+            }
+        }
+
+        working.clear();
+        ArrayList<T> result = working;
+        result.ensureCapacity(latest.size() + fill.size());
+        int f = 0;
+        for (int i = 0, s = latest.size(); i < s; i++) {
+            T item = latest.get(i);
+            long id = mIdFunction.getId(item);
+            if (workingIds.contains(id)) {
+                //a shared slot, filled in the user's order, bringing along any user additions.
+                while ((f < fill.size()) && (!latestIds.contains(mIdFunction.getId(fill.get(f))))) {
+                    result.add(fill.get(f++));
+                }
+                if (f < fill.size()) {
+                    result.add(fill.get(f++));
+                }
+            } else if (!baseIds.contains(id)) {
+                result.add(item);
+            }
+            //else the user deleted it during the drag.
+        }
+        while (f < fill.size()) {
+            result.add(fill.get(f++));
+        }
+    }
+
+    /**
+     * Open addressing set of ids, so a rebase does not box every id.
+     */
+    private static class LongSet {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private final long[] mSlots;
+        private final int mMask;
+        private boolean mHasEmpty = false;
+
+        LongSet(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+            mSlots = new long[capacity];
+            mMask = capacity - 1;
+            Arrays.fill(mSlots, EMPTY);
+        }
+
+        void add(long id) {
+            if (id == EMPTY) {
+                mHasEmpty = true;
+                return;
+            }
+            int i = hash(id);
+            while ((mSlots[i] != EMPTY) && (mSlots[i] != id)) {
+                i = (i + 1) & mMask;
+            }
+            mSlots[i] = id;
+        }
+
+        boolean contains(long id) {
+            if (id == EMPTY) return mHasEmpty;
+            int i = hash(id);
+            while (mSlots[i] != EMPTY) {
+                if (mSlots[i] == id) return true;
+                i = (i + 1) & mMask;
+            }
+            return false;
+        }
+
+        private int hash(long id) {
+            int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mMask;
+        }
+    }
+}